@@ -15,20 +15,40 @@ public abstract class AbstractController implements Controller, ModelListener {
     private Model model;
 
     /**
-     * Sets the model for this controller and adds a model listener.
+     * Sets the model for this controller and starts listening to it.
      *
      * @param model The model to set.
      */
     public void setModel(Model model) {
         if (this.model != null) {
-            this.model.removeModelListener(this);
+            stopListening(this.model);
         }
         this.model = model;
         if (model != null) {
-            model.addModelListener(this);
+            listen(model);
         }
     }
 
+    /**
+     * Starts listening to the model. By default the controller hears every event the model
+     * fires; a controller that presents only part of the model overrides this to subscribe
+     * to just that part.
+     *
+     * @param model The model to listen to.
+     */
+    protected void listen(Model model) {
+        model.addModelListener(this);
+    }
+
+    /**
+     * Stops listening to the model, undoing {@link #listen(Model)}.
+     *
+     * @param model The model to stop listening to.
+     */
+    protected void stopListening(Model model) {
+        model.removeModelListener(this);
+    }
+
     /**
      * Returns the model associated with this controller.
      *
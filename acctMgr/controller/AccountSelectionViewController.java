@@ -1,15 +1,19 @@
 package acctMgr.controller;
 
 import acctMgr.model.Account;
+import acctMgr.model.AccountList;
 import acctMgr.model.Model;
+import acctMgr.model.ShardedAccountEngine;
 import acctMgr.view.AccountSelectionView;
 import acctMgr.view.AccountView;
 import acctMgr.view.View;
+import javax.swing.SwingUtilities;
 
 /**
  * Controller for handling interactions in the AccountSelectionView.
  */
 public class AccountSelectionViewController extends AbstractController {
+    private final ShardedAccountEngine engine;
 
     /**
      * Constructs an AccountSelectionViewController with the specified view and model.
@@ -18,6 +22,19 @@ public class AccountSelectionViewController extends AbstractController {
      * @param model The model associated with this controller.
      */
     public AccountSelectionViewController(View view, Model model) {
+        this(view, model, null);
+    }
+
+    /**
+     * Constructs an AccountSelectionViewController whose account views submit their
+     * operations to a sharded engine.
+     *
+     * @param view The view associated with this controller.
+     * @param model The model associated with this controller.
+     * @param engine The engine account views submit to, or {@code null} to update accounts directly.
+     */
+    public AccountSelectionViewController(View view, Model model, ShardedAccountEngine engine) {
+        this.engine = engine;
         setView(view);
         setModel(model);
     }
@@ -45,7 +62,7 @@ public class AccountSelectionViewController extends AbstractController {
 
         if (selectedAccount != null) {
             // Create and display an AccountView for the selected account
-            AccountView accountView = new AccountView(selectedAccount);
+            AccountView accountView = new AccountView(selectedAccount, (AccountList) getModel(), engine);
             accountView.setVisible(true);
         } else {
             System.out.println("No account selected.");
@@ -55,9 +72,11 @@ public class AccountSelectionViewController extends AbstractController {
     /**
      * Updates the view based on changes in the model.
      * This method is called when the model changes, and it refreshes the view.
+     * Model events arrive on the event dispatch thread of the model, so the refresh is
+     * handed to the Swing event thread.
      */
     @Override
     public void updateView() {
-        getView().refreshView();
+        SwingUtilities.invokeLater(getView()::refreshView);
     }
 }
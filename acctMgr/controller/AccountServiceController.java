@@ -0,0 +1,227 @@
+package acctMgr.controller;
+
+import acctMgr.model.Account;
+import acctMgr.model.AccountList;
+import acctMgr.model.Model;
+import acctMgr.model.OverdrawException;
+import acctMgr.model.ShardedAccountEngine;
+import acctMgr.view.View;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Headless controller that carries out text commands against an {@link AccountList} and
+ * reports the outcome through a {@link ReplyView}. It is used by the account server, one
+ * controller per connection, and loads no Swing classes.
+ * <p>
+ * Commands are case-insensitive words separated by spaces:
+ * <pre>
+ * DEPOSIT id amount          OK balance
+ * WITHDRAW id amount         OK balance | ERR OVERDRAW shortfall
+ * TRANSFER from to amount    OK
+ * GET id                     OK id balance name
+ * LIST                       OK count, then one "id balance name" line per account
+ * </pre>
+ * Any failure is reported as a single line starting with {@code ERR}.
+ * <p>
+ * Given a {@link ShardedAccountEngine}, deposits, withdrawals, and transfers are submitted
+ * to the engine and the reply is sent once the engine completes them.
+ */
+public class AccountServiceController extends AbstractController {
+
+    /**
+     * A view that can send one-line replies back to the client.
+     */
+    public interface ReplyView extends View {
+        /**
+         * Sends one line of reply.
+         *
+         * @param line The line, without a line separator.
+         */
+        void reply(String line);
+    }
+
+    private AccountList accountList;
+    private final ShardedAccountEngine engine;
+
+    /**
+     * Constructs an AccountServiceController with the specified view and model.
+     *
+     * @param view The view replies are sent through.
+     * @param model The accounts to operate on.
+     */
+    public AccountServiceController(ReplyView view, AccountList model) {
+        this(view, model, null);
+    }
+
+    /**
+     * Constructs an AccountServiceController that applies balance changes through a sharded
+     * engine.
+     *
+     * @param view The view replies are sent through.
+     * @param model The accounts to operate on.
+     * @param engine The engine to submit operations to, or {@code null} to apply them directly.
+     */
+    public AccountServiceController(ReplyView view, AccountList model, ShardedAccountEngine engine) {
+        this.engine = engine;
+        setView(view);
+        setModel(model);
+    }
+
+    /**
+     * Sets the model. A service controller answers requests and has no view to keep
+     * current, so unlike other controllers it does not listen for model events; with
+     * thousands of connections that would multiply the cost of every change.
+     *
+     * @param model The accounts to operate on.
+     */
+    @Override
+    public void setModel(Model model) {
+        this.accountList = (AccountList) model;
+    }
+
+    /**
+     * Returns the model associated with this controller.
+     *
+     * @return The accounts operated on.
+     */
+    @Override
+    public Model getModel() {
+        return accountList;
+    }
+
+    /**
+     * Carries out one command line and sends the reply.
+     *
+     * @param actionCommand The command line.
+     */
+    @Override
+    public void operation(String actionCommand) {
+        ReplyView view = (ReplyView) getView();
+        String[] words = actionCommand.trim().split("\\s+");
+        try {
+            switch (words[0].toUpperCase()) {
+                case "DEPOSIT": {
+                    expectArguments(words, 2);
+                    Account account = lookup(words[1]);
+                    if (engine != null) {
+                        long balance = engine.deposit(account.getId(), Account.toCents(parseAmount(words[2]))).join();
+                        view.reply("OK " + BigDecimal.valueOf(balance, Account.SCALE));
+                        break;
+                    }
+                    account.deposit(parseAmount(words[2]));
+                    view.reply("OK " + account.getBalance());
+                    break;
+                }
+                case "WITHDRAW": {
+                    expectArguments(words, 2);
+                    Account account = lookup(words[1]);
+                    long amountCents = Account.toCents(parseAmount(words[2]));
+                    long shortfall = engine != null
+                            ? engine.withdraw(account.getId(), amountCents).join()
+                            : account.tryWithdrawCents(amountCents);
+                    view.reply(shortfall > 0
+                            ? "ERR OVERDRAW " + BigDecimal.valueOf(shortfall, Account.SCALE)
+                            : "OK " + account.getBalance());
+                    break;
+                }
+                case "TRANSFER":
+                    expectArguments(words, 3);
+                    if (engine != null) {
+                        long shortfall = engine.transfer(words[1], words[2], Account.toCents(parseAmount(words[3]))).join();
+                        view.reply(shortfall > 0 ? "ERR OVERDRAW " + BigDecimal.valueOf(shortfall, Account.SCALE) : "OK");
+                        break;
+                    }
+                    accountList.transfer(words[1], words[2], parseAmount(words[3]));
+                    view.reply("OK");
+                    break;
+                case "GET": {
+                    expectArguments(words, 1);
+                    view.reply("OK " + describe(lookup(words[1])));
+                    break;
+                }
+                case "LIST":
+                    expectArguments(words, 0);
+                    // Sized from a snapshot so the count always matches the lines sent
+                    List<Account> accounts = accountList.getAccounts();
+                    view.reply("OK " + accounts.size());
+                    for (Account account : accounts) {
+                        view.reply(describe(account));
+                    }
+                    break;
+                default:
+                    view.showErrorMessage("Unknown command: " + words[0]);
+            }
+        } catch (OverdrawException e) {
+            view.reply("ERR OVERDRAW " + e.getOverdraftAmount());
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            view.showErrorMessage(e.getMessage());
+        } catch (CompletionException e) {
+            // The engine reports unknown accounts and shutdown through the future
+            view.showErrorMessage(e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Checks the number of arguments after the command word.
+     *
+     * @param words The command words.
+     * @param count The number of arguments expected.
+     */
+    private static void expectArguments(String[] words, int count) {
+        if (words.length != count + 1) {
+            throw new IllegalArgumentException(words[0].toUpperCase() + " takes " + count + " argument(s)");
+        }
+    }
+
+    /**
+     * Finds an account by ID.
+     *
+     * @param id The account ID.
+     * @return The account.
+     */
+    private Account lookup(String id) {
+        Account account = accountList.findById(id);
+        if (account == null) {
+            throw new IllegalArgumentException("Unknown account: " + id);
+        }
+        return account;
+    }
+
+    /**
+     * Parses a positive amount.
+     *
+     * @param text The amount as text.
+     * @return The amount.
+     */
+    private static BigDecimal parseAmount(String text) {
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount: " + text);
+        }
+        if (amount.signum() <= 0) {
+            throw new IllegalArgumentException("Amount must be positive: " + text);
+        }
+        return amount;
+    }
+
+    /**
+     * Formats an account for a reply.
+     *
+     * @param account The account.
+     * @return The ID, balance and name separated by spaces.
+     */
+    private static String describe(Account account) {
+        return account.getId() + " " + account.getBalance() + " " + account.getName();
+    }
+
+    /**
+     * Does nothing: replies are sent as each command completes.
+     */
+    @Override
+    public void updateView() {
+    }
+}
@@ -1,16 +1,28 @@
 package acctMgr.controller;
 
 import acctMgr.model.Account;
+import acctMgr.model.AccountList;
 import acctMgr.model.Model;
 import acctMgr.model.OverdrawException;
+import acctMgr.model.ShardedAccountEngine;
 import acctMgr.view.AccountView;
 import acctMgr.view.View;
+import javax.swing.SwingUtilities;
 import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Controller for handling interactions in the AccountView.
+ * <p>
+ * When given a {@link ShardedAccountEngine}, deposits and withdrawals are submitted to the
+ * engine rather than applied on the Swing event thread, and the outcome is reported back to
+ * the view when the engine completes them.
  */
 public class AccountViewController extends AbstractController {
+    private final AccountView accountView;
+    private final Account account;
+    private final ShardedAccountEngine engine;
 
     /**
      * Constructs an AccountViewController with the specified view and model.
@@ -19,10 +31,60 @@ public class AccountViewController extends AbstractController {
      * @param model The model associated with this controller.
      */
     public AccountViewController(View view, Model model) {
+        this.accountView = null;
+        this.account = null;
+        this.engine = null;
         setView(view);
         setModel(model);
     }
 
+    /**
+     * Constructs an AccountViewController for one account of an account list. It subscribes
+     * to that account's events only, and optionally routes operations through a sharded
+     * engine.
+     *
+     * @param view The account view the operations come from.
+     * @param account The account the view manages.
+     * @param accountList The list the account belongs to.
+     * @param engine The engine to submit operations to, or {@code null} to update the account directly.
+     */
+    public AccountViewController(AccountView view, Account account, AccountList accountList,
+            ShardedAccountEngine engine) {
+        this.accountView = view;
+        this.account = account;
+        this.engine = engine;
+        setModel(accountList);
+    }
+
+    /**
+     * Subscribes to events about this controller's account only when the model is an
+     * account list, so an open account view is not woken by changes to every other account.
+     *
+     * @param model The model to listen to.
+     */
+    @Override
+    protected void listen(Model model) {
+        if (model instanceof AccountList && account != null) {
+            ((AccountList) model).subscribe(account.getId(), this);
+        } else {
+            super.listen(model);
+        }
+    }
+
+    /**
+     * Drops the subscription made by {@link #listen(Model)}.
+     *
+     * @param model The model to stop listening to.
+     */
+    @Override
+    protected void stopListening(Model model) {
+        if (model instanceof AccountList && account != null) {
+            ((AccountList) model).unsubscribe(account.getId(), this);
+        } else {
+            super.stopListening(model);
+        }
+    }
+
     /**
      * Handles different user actions based on the provided action command.
      * Supported action commands are "deposit", "withdraw", and "dismiss".
@@ -31,12 +93,14 @@ public class AccountViewController extends AbstractController {
      */
     @Override
     public void operation(String actionCommand) {
-        AccountView view = (AccountView) getView();
-        Account account = (Account) getModel();
+        AccountView view = accountView != null ? accountView : (AccountView) getView();
+        Account account = this.account != null ? this.account : (Account) getModel();
 
         try {
             BigDecimal amount = new BigDecimal(view.getAmount());
-            if ("deposit".equals(actionCommand)) {
+            if (engine != null && ("deposit".equals(actionCommand) || "withdraw".equals(actionCommand))) {
+                submit(view, account, actionCommand, Account.toCents(amount));
+            } else if ("deposit".equals(actionCommand)) {
                 account.deposit(amount);
             } else if ("withdraw".equals(actionCommand)) {
                 account.withdraw(amount);
@@ -49,12 +113,43 @@ public class AccountViewController extends AbstractController {
         }
     }
 
+    /**
+     * Submits a deposit or withdrawal to the engine and reports a decline or failure to the
+     * view on the Swing event thread once it completes.
+     *
+     * @param view The view to report to.
+     * @param account The account to operate on.
+     * @param actionCommand Either "deposit" or "withdraw".
+     * @param amountCents The amount in cents.
+     */
+    private void submit(AccountView view, Account account, String actionCommand, long amountCents) {
+        CompletableFuture<Long> shortfall = "deposit".equals(actionCommand)
+                ? engine.deposit(account.getId(), amountCents).thenApply(balance -> 0L)
+                : engine.withdraw(account.getId(), amountCents);
+        shortfall.whenComplete((cents, failure) -> {
+            if (failure != null) {
+                Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+                SwingUtilities.invokeLater(() -> view.showErrorMessage(cause.getMessage()));
+            } else if (cents > 0) {
+                SwingUtilities.invokeLater(() ->
+                        view.showErrorMessage("Overdraft occurred: " + BigDecimal.valueOf(cents, Account.SCALE)));
+            }
+        });
+    }
+
     /**
      * Updates the view based on changes in the model.
      * Called when the model changes to refresh the view.
+     * Model events arrive on the event dispatch thread of the model, so the refresh is
+     * handed to the Swing event thread.
      */
     @Override
     public void updateView() {
-        getView().refreshView();
+        if (accountView != null) {
+            // Redraws only the balance, in the next frame, leaving the amount being typed
+            accountView.accountUpdated(account);
+        } else {
+            SwingUtilities.invokeLater(getView()::refreshView);
+        }
     }
 }
@@ -0,0 +1,191 @@
+package acctMgr.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Process-wide counters and latency histograms for account operations, file I/O and event
+ * dispatch. Recording goes to striped adders and does not allocate or block, so it is
+ * cheap enough for every deposit. The metrics are registered as a platform MBean on first
+ * use and can be watched with any JMX client.
+ */
+public final class AccountMetrics implements AccountMetricsMXBean {
+    /**
+     * The JMX object name the metrics are registered under.
+     */
+    public static final String OBJECT_NAME = "acctMgr:type=AccountMetrics";
+
+    private static final AccountMetrics INSTANCE = new AccountMetrics();
+
+    static {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            System.err.println("Could not register account metrics: " + e.getMessage());
+        }
+    }
+
+    private final LongAdder deposits = new LongAdder();
+    private final LongAdder withdrawals = new LongAdder();
+    private final LongAdder overdraws = new LongAdder();
+    private final LatencyHistogram depositLatency = new LatencyHistogram();
+    private final LatencyHistogram withdrawLatency = new LatencyHistogram();
+    private final LatencyHistogram loadDuration = new LatencyHistogram();
+    private final LongAdder loadBytes = new LongAdder();
+    private final LatencyHistogram saveDuration = new LatencyHistogram();
+    private final LongAdder saveBytes = new LongAdder();
+    private final LongAdder ioFailures = new LongAdder();
+    private final LatencyHistogram dispatchLatency = new LatencyHistogram();
+    private final LongAdder eventsDispatched = new LongAdder();
+    private final LongAdder listenerFailures = new LongAdder();
+
+    private AccountMetrics() {
+    }
+
+    /**
+     * Returns the process-wide metrics.
+     *
+     * @return The metrics.
+     */
+    public static AccountMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Records a completed deposit.
+     *
+     * @param startNanos When the deposit started, from {@link System#nanoTime()}.
+     */
+    public void recordDeposit(long startNanos) {
+        deposits.increment();
+        depositLatency.recordSince(startNanos);
+    }
+
+    /**
+     * Records a withdrawal, completed or rejected.
+     *
+     * @param startNanos When the withdrawal started, from {@link System#nanoTime()}.
+     * @param overdrawn Whether it was rejected because it would overdraw.
+     */
+    public void recordWithdraw(long startNanos, boolean overdrawn) {
+        if (overdrawn) {
+            overdraws.increment();
+        } else {
+            withdrawals.increment();
+        }
+        withdrawLatency.recordSince(startNanos);
+    }
+
+    /**
+     * Records a completed load of an account file.
+     *
+     * @param startNanos When the load started.
+     * @param bytes The size of the file.
+     */
+    public void recordLoad(long startNanos, long bytes) {
+        loadDuration.recordSince(startNanos);
+        loadBytes.add(bytes);
+    }
+
+    /**
+     * Records a completed save of an account file.
+     *
+     * @param startNanos When the save started.
+     * @param bytes The number of bytes written.
+     */
+    public void recordSave(long startNanos, long bytes) {
+        saveDuration.recordSince(startNanos);
+        saveBytes.add(bytes);
+    }
+
+    /**
+     * Records a failed load or save.
+     */
+    public void recordIoFailure() {
+        ioFailures.increment();
+    }
+
+    /**
+     * Records the delivery of one event to its listeners.
+     *
+     * @param startNanos When delivery started.
+     */
+    public void recordDispatch(long startNanos) {
+        eventsDispatched.increment();
+        dispatchLatency.recordSince(startNanos);
+    }
+
+    /**
+     * Records a listener that threw while handling an event.
+     */
+    public void recordListenerFailure() {
+        listenerFailures.increment();
+    }
+
+    @Override
+    public long getDeposits() {
+        return deposits.sum();
+    }
+
+    @Override
+    public long getWithdrawals() {
+        return withdrawals.sum();
+    }
+
+    @Override
+    public long getOverdraws() {
+        return overdraws.sum();
+    }
+
+    @Override
+    public LatencySnapshot getDepositLatency() {
+        return depositLatency.snapshot();
+    }
+
+    @Override
+    public LatencySnapshot getWithdrawLatency() {
+        return withdrawLatency.snapshot();
+    }
+
+    @Override
+    public LatencySnapshot getLoadDuration() {
+        return loadDuration.snapshot();
+    }
+
+    @Override
+    public long getLoadBytes() {
+        return loadBytes.sum();
+    }
+
+    @Override
+    public LatencySnapshot getSaveDuration() {
+        return saveDuration.snapshot();
+    }
+
+    @Override
+    public long getSaveBytes() {
+        return saveBytes.sum();
+    }
+
+    @Override
+    public long getIoFailures() {
+        return ioFailures.sum();
+    }
+
+    @Override
+    public LatencySnapshot getDispatchLatency() {
+        return dispatchLatency.snapshot();
+    }
+
+    @Override
+    public long getEventsDispatched() {
+        return eventsDispatched.sum();
+    }
+
+    @Override
+    public long getListenerFailures() {
+        return listenerFailures.sum();
+    }
+}
@@ -0,0 +1,72 @@
+package acctMgr.metrics;
+
+/**
+ * Management interface of {@link AccountMetrics}, registered as
+ * {@value AccountMetrics#OBJECT_NAME}.
+ */
+public interface AccountMetricsMXBean {
+    /**
+     * @return The number of completed deposits.
+     */
+    long getDeposits();
+
+    /**
+     * @return The number of completed withdrawals.
+     */
+    long getWithdrawals();
+
+    /**
+     * @return The number of withdrawals rejected because they would overdraw.
+     */
+    long getOverdraws();
+
+    /**
+     * @return The time taken by deposits.
+     */
+    LatencySnapshot getDepositLatency();
+
+    /**
+     * @return The time taken by withdrawals, including rejected ones.
+     */
+    LatencySnapshot getWithdrawLatency();
+
+    /**
+     * @return The time taken to load account files.
+     */
+    LatencySnapshot getLoadDuration();
+
+    /**
+     * @return The number of bytes of account files loaded.
+     */
+    long getLoadBytes();
+
+    /**
+     * @return The time taken to save account files, full or incremental.
+     */
+    LatencySnapshot getSaveDuration();
+
+    /**
+     * @return The number of bytes of account files written.
+     */
+    long getSaveBytes();
+
+    /**
+     * @return The number of failed loads and saves.
+     */
+    long getIoFailures();
+
+    /**
+     * @return The time taken to deliver one model event to all of its listeners.
+     */
+    LatencySnapshot getDispatchLatency();
+
+    /**
+     * @return The number of model events delivered.
+     */
+    long getEventsDispatched();
+
+    /**
+     * @return The number of listener calls that threw.
+     */
+    long getListenerFailures();
+}
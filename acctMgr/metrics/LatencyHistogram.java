@@ -0,0 +1,99 @@
+package acctMgr.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent histogram of durations in nanoseconds with power-of-two buckets. Bucket
+ * {@code b} counts values from {@code 2^b} up to {@code 2^(b+1) - 1}, so a percentile is
+ * reported to within a factor of two. Recording never allocates once the striped counters
+ * have settled, and never blocks.
+ */
+public class LatencyHistogram {
+    private static final int BUCKETS = 64;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Constructs an empty histogram.
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records one duration.
+     *
+     * @param nanos The duration, in nanoseconds. Negative values are recorded as zero.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets[63 - Long.numberOfLeadingZeros(value | 1)].increment();
+        count.increment();
+        totalNanos.add(value);
+        if (value > maxNanos.get()) {
+            maxNanos.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * Records the time elapsed since a start time taken from {@link System#nanoTime()}.
+     *
+     * @param startNanos The start time.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return The count.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Estimates a percentile as the upper bound of the bucket that contains it.
+     *
+     * @param quantile The quantile, between 0 and 1.
+     * @return The estimated value in nanoseconds, or 0 if nothing was recorded.
+     */
+    public long getPercentile(double quantile) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank && counts[i] > 0) {
+                return i == 62 ? Long.MAX_VALUE : Math.min((2L << i) - 1, maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    /**
+     * Returns a summary of the recorded values.
+     *
+     * @return The summary.
+     */
+    public LatencySnapshot snapshot() {
+        long n = count.sum();
+        return new LatencySnapshot(n, n == 0 ? 0 : totalNanos.sum() / n, getPercentile(0.5),
+                getPercentile(0.99), getPercentile(0.999), maxNanos.get());
+    }
+}
@@ -0,0 +1,78 @@
+package acctMgr.metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * A point-in-time summary of a {@link LatencyHistogram}. Exposed through JMX as composite
+ * data. All durations are in nanoseconds; percentiles are upper bounds within a factor of two.
+ */
+public class LatencySnapshot {
+    private final long count;
+    private final long meanNanos;
+    private final long p50Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+    private final long maxNanos;
+
+    /**
+     * Constructs a LatencySnapshot.
+     *
+     * @param count The number of recorded values.
+     * @param meanNanos The mean value.
+     * @param p50Nanos The median.
+     * @param p99Nanos The 99th percentile.
+     * @param p999Nanos The 99.9th percentile.
+     * @param maxNanos The largest value.
+     */
+    @ConstructorProperties({"count", "meanNanos", "p50Nanos", "p99Nanos", "p999Nanos", "maxNanos"})
+    public LatencySnapshot(long count, long meanNanos, long p50Nanos, long p99Nanos, long p999Nanos, long maxNanos) {
+        this.count = count;
+        this.meanNanos = meanNanos;
+        this.p50Nanos = p50Nanos;
+        this.p99Nanos = p99Nanos;
+        this.p999Nanos = p999Nanos;
+        this.maxNanos = maxNanos;
+    }
+
+    /**
+     * @return The number of recorded values.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return The mean value.
+     */
+    public long getMeanNanos() {
+        return meanNanos;
+    }
+
+    /**
+     * @return The median.
+     */
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    /**
+     * @return The 99th percentile.
+     */
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    /**
+     * @return The 99.9th percentile.
+     */
+    public long getP999Nanos() {
+        return p999Nanos;
+    }
+
+    /**
+     * @return The largest value.
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+}
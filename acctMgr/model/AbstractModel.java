@@ -1,25 +1,28 @@
 package acctMgr.model;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Abstract base class for models in the MVC (Model-View-Controller) architecture.
  * This class provides the common functionality for handling model listeners and notifying them of changes.
+ * Events are delivered asynchronously by an {@link EventDispatcher}.
  */
 public abstract class AbstractModel implements Model {
     
-    private List<ModelListener> listeners = new ArrayList<>(5);
+    private final EventDispatcher dispatcher = new EventDispatcher();
 
     /**
-     * Notifies all registered listeners of a model change event.
+     * Queues a model change event for delivery to all registered listeners.
      *
      * @param event The model event that occurred.
      */
     public void notifyChanged(ModelEvent event) {
-        for (ModelListener ml : listeners) {
-            ml.modelChanged(event);
-        }
+        dispatcher.dispatch(event);
+    }
+
+    /**
+     * Delivers any queued events and waits until they have reached the listeners.
+     */
+    public void flushEvents() {
+        dispatcher.flush().join();
     }
 
     /**
@@ -29,7 +32,17 @@ public abstract class AbstractModel implements Model {
      */
     @Override
     public void addModelListener(ModelListener l) {
-        listeners.add(l);
+        dispatcher.addListener(l);
+    }
+
+    /**
+     * Adds a model listener that is held weakly, so that registering does not keep the
+     * listener alive. It is dropped automatically once garbage collected.
+     *
+     * @param l The model listener to add.
+     */
+    public void addWeakModelListener(ModelListener l) {
+        dispatcher.addWeakListener(l);
     }
 
     /**
@@ -39,6 +52,6 @@ public abstract class AbstractModel implements Model {
      */
     @Override
     public void removeModelListener(ModelListener l) {
-        listeners.remove(l);
+        dispatcher.removeListener(l);
     }
 }
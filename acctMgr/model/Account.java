@@ -1,18 +1,40 @@
 package acctMgr.model;
 
+import acctMgr.metrics.AccountMetrics;
 import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.List;
+import java.math.RoundingMode;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Represents an account with a balance, name, and unique identifier.
  * The account can notify registered listeners of updates to its state.
+ * <p>
+ * The balance is held as a count of cents in an atomic cell and updated with a
+ * compare-and-set loop, so concurrent deposits and withdrawals never lose updates
+ * and do not allocate on the update path.
  */
 public class Account {
-    private BigDecimal balance;
+    /**
+     * Number of decimal places kept for balances (cents).
+     */
+    public static final int SCALE = 2;
+
+    private final AtomicLong balanceCents;
+    private final ReentrantLock lock = new ReentrantLock();
+    // Separate leaf lock for parking withdrawers, so signalling never nests inside other locks
+    private final ReentrantLock fundsLock = new ReentrantLock();
+    private final Condition fundsAvailable = fundsLock.newCondition();
+    private final AtomicInteger fundsWaiters = new AtomicInteger();
+    private volatile TransactionJournal journal;
+    private volatile AccountList owner;
+    private final AtomicBoolean dirty = new AtomicBoolean();
     private String name;
     private String id;
-    private List<AccountListener> listeners;
+    private final ListenerRegistry<AccountListener> listeners;
 
     /**
      * Constructs an Account object with the given name, ID, and initial balance.
@@ -22,10 +44,21 @@ public class Account {
      * @param balance The initial balance of the account.
      */
     public Account(String name, String id, BigDecimal balance) {
+        this(name, id, toCents(balance));
+    }
+
+    /**
+     * Constructs an Account object with the given name, ID, and initial balance in cents.
+     *
+     * @param name         The name of the account holder.
+     * @param id           The unique identifier for the account.
+     * @param balanceCents The initial balance of the account, in cents.
+     */
+    public Account(String name, String id, long balanceCents) {
         this.name = name;
         this.id = id;
-        this.balance = balance;
-        this.listeners = new ArrayList<>();
+        this.balanceCents = new AtomicLong(balanceCents);
+        this.listeners = new ListenerRegistry<>();
     }
 
     /**
@@ -34,7 +67,16 @@ public class Account {
      * @return The current balance.
      */
     public BigDecimal getBalance() {
-        return balance;
+        return BigDecimal.valueOf(balanceCents.get(), SCALE);
+    }
+
+    /**
+     * Returns the current balance of the account in cents.
+     *
+     * @return The current balance in cents.
+     */
+    public long getBalanceCents() {
+        return balanceCents.get();
     }
 
     /**
@@ -43,8 +85,35 @@ public class Account {
      * @param amount The amount to deposit.
      */
     public void deposit(BigDecimal amount) {
-        balance = balance.add(amount);
-        notifyListeners();
+        depositCents(toCents(amount));
+    }
+
+    /**
+     * Deposits the specified number of cents into the account.
+     *
+     * @param amountCents The amount to deposit, in cents.
+     */
+    public void depositCents(long amountCents) {
+        long start = System.nanoTime();
+        TransactionJournal j = journal;
+        long balance;
+        if (j == null) {
+            balance = applyDeposit(amountCents);
+            recordChange(amountCents, balance);
+        } else {
+            long sequence;
+            j.beginAppend();
+            try {
+                balance = applyDeposit(amountCents);
+                sequence = j.append(TransactionJournal.RecordType.Deposit, id, null, amountCents);
+            } finally {
+                j.endAppend();
+            }
+            recordChange(amountCents, balance);
+            j.awaitDurable(sequence);
+        }
+        notifyListeners(amountCents);
+        AccountMetrics.get().recordDeposit(start);
     }
 
     /**
@@ -54,20 +123,176 @@ public class Account {
      * @throws OverdrawException If the withdrawal would result in a negative balance.
      */
     public void withdraw(BigDecimal amount) throws OverdrawException {
-        BigDecimal newBalance = balance.subtract(amount);
+        withdrawCents(toCents(amount));
+    }
 
-        // Check if the new balance would be negative after the withdrawal
-        if (newBalance.compareTo(BigDecimal.ZERO) < 0) {
-            // Calculate the overdraft amount
-            BigDecimal overdraftAmount = newBalance.abs();
-            
+    /**
+     * Withdraws the specified number of cents from the account.
+     *
+     * @param amountCents The amount to withdraw, in cents.
+     * @throws OverdrawException If the withdrawal would result in a negative balance.
+     */
+    public void withdrawCents(long amountCents) throws OverdrawException {
+        long shortfall = tryWithdrawCents(amountCents);
+        if (shortfall > 0) {
             // Throw an OverdrawException with the overdraft amount
-            throw new OverdrawException(overdraftAmount);
+            throw new OverdrawException(BigDecimal.valueOf(shortfall, SCALE));
+        }
+    }
+
+    /**
+     * Withdraws the specified number of cents if the balance covers it. Unlike
+     * {@link #withdrawCents(long)}, a decline is reported through the return value, so it
+     * allocates nothing; use this where declines are routine.
+     *
+     * @param amountCents The amount to withdraw, in cents.
+     * @return Zero if the withdrawal was made, otherwise the shortfall in cents, in which
+     *         case the balance is unchanged.
+     */
+    public long tryWithdrawCents(long amountCents) {
+        long start = System.nanoTime();
+        TransactionJournal j = journal;
+        long balance;
+        if (j == null) {
+            balance = applyWithdraw(amountCents);
+            if (balance >= 0) {
+                recordChange(-amountCents, balance);
+            }
+        } else {
+            long sequence = 0;
+            j.beginAppend();
+            try {
+                balance = applyWithdraw(amountCents);
+                if (balance >= 0) {
+                    sequence = j.append(TransactionJournal.RecordType.Withdraw, id, null, amountCents);
+                }
+            } finally {
+                j.endAppend();
+            }
+            if (balance >= 0) {
+                recordChange(-amountCents, balance);
+                j.awaitDurable(sequence);
+            }
+        }
+        if (balance < 0) {
+            AccountMetrics.get().recordWithdraw(start, true);
+            return -balance;
         }
+        notifyListeners(-amountCents);
+        AccountMetrics.get().recordWithdraw(start, false);
+        return 0;
+    }
+
+    /**
+     * Adds cents to the balance without notifying listeners.
+     *
+     * @param amountCents The amount to deposit, in cents.
+     * @return The new balance in cents.
+     */
+    long applyDeposit(long amountCents) {
+        long newBalance = balanceCents.addAndGet(amountCents);
+        // Only pay for the lock when someone is actually parked waiting for funds
+        if (fundsWaiters.get() > 0) {
+            fundsLock.lock();
+            try {
+                fundsAvailable.signalAll();
+            } finally {
+                fundsLock.unlock();
+            }
+        }
+        return newBalance;
+    }
+
+    /**
+     * Blocks the calling thread until the balance is at least the given amount. The thread
+     * parks on a condition that deposits signal, so waiting does not spin.
+     *
+     * @param amountCents The balance to wait for, in cents.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    void awaitFunds(long amountCents) throws InterruptedException {
+        fundsLock.lock();
+        try {
+            // Register before re-checking the balance so a concurrent deposit sees the waiter
+            fundsWaiters.incrementAndGet();
+            try {
+                while (balanceCents.get() < amountCents) {
+                    fundsAvailable.await();
+                }
+            } finally {
+                fundsWaiters.decrementAndGet();
+            }
+        } finally {
+            fundsLock.unlock();
+        }
+    }
+
+    /**
+     * Removes cents from the balance without notifying listeners, unless that would
+     * leave the balance negative.
+     *
+     * @param amountCents The amount to withdraw, in cents.
+     * @return The new balance in cents if the withdrawal was applied, otherwise the negated
+     *         overdraft amount, which is always negative.
+     */
+    long applyWithdraw(long amountCents) {
+        long current;
+        long newBalance;
+        do {
+            current = balanceCents.get();
+            newBalance = current - amountCents;
+
+            // Check if the new balance would be negative after the withdrawal
+            if (newBalance < 0) {
+                return newBalance;
+            }
+        } while (!balanceCents.compareAndSet(current, newBalance));
+        return newBalance;
+    }
 
-        // Update the balance if the withdrawal is successful
-        balance = newBalance;
-        notifyListeners();
+    /**
+     * Sets the journal that records this account's deposits and withdrawals before they
+     * are acknowledged, or {@code null} to stop journaling.
+     *
+     * @param journal The journal to use.
+     */
+    void setJournal(TransactionJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Sets the account list this account belongs to, which is told about every change.
+     *
+     * @param owner The owning account list, or {@code null} once the account is removed.
+     */
+    void setOwner(AccountList owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * Marks the account as changed since it was last persisted.
+     *
+     * @return {@code true} if the account was clean before this call.
+     */
+    boolean markDirty() {
+        return !dirty.get() && dirty.compareAndSet(false, true);
+    }
+
+    /**
+     * Marks the account as persisted. Changes made after this call mark it dirty again.
+     */
+    void clearDirty() {
+        dirty.set(false);
+    }
+
+    /**
+     * Returns the lock that serializes multi-account operations, such as transfers, that
+     * involve this account. Single deposits and withdrawals do not take it.
+     *
+     * @return The account's lock.
+     */
+    ReentrantLock getLock() {
+        return lock;
     }
 
     /**
@@ -80,12 +305,63 @@ public class Account {
     }
 
     /**
-     * Notifies all listeners of an account update.
+     * Adds a listener that is held weakly, so it does not keep its owner alive. The entry
+     * is dropped automatically once the listener is garbage collected.
+     *
+     * @param listener The listener to add.
+     */
+    public void addWeakListener(AccountListener listener) {
+        listeners.addWeak(listener);
+    }
+
+    /**
+     * Removes a listener so it is no longer notified of account updates.
+     *
+     * @param listener The listener to remove.
      */
-    private void notifyListeners() {
-        for (AccountListener listener : listeners) {
-            listener.accountUpdated(this);
+    public void removeListener(AccountListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Tells the owning list about a single applied balance update, so its aggregates and
+     * the set of accounts to save include it. Called as soon as the update is applied,
+     * before waiting for the journal, so that a journal failure cannot hide it.
+     *
+     * @param deltaCents The change to the balance, in cents.
+     * @param balanceCents The balance the update produced, as returned by the update itself
+     *                     rather than read again, in cents.
+     */
+    void recordChange(long deltaCents, long balanceCents) {
+        recordChange(deltaCents, balanceCents - deltaCents, balanceCents);
+    }
+
+    /**
+     * Tells the owning list about one or more applied balance updates.
+     *
+     * @param deltaCents The net change to the balance, in cents.
+     * @param beforeCents The balance just before the first update, in cents.
+     * @param afterCents The balance the last update produced, in cents.
+     */
+    void recordChange(long deltaCents, long beforeCents, long afterCents) {
+        AccountList list = owner;
+        if (list != null) {
+            list.accountChanged(this, deltaCents, beforeCents, afterCents);
+        }
+    }
+
+    /**
+     * Notifies all listeners of a durable balance change. The change must already have been
+     * passed to {@link #recordChange(long, long, long)}.
+     *
+     * @param deltaCents The net change to the balance, in cents.
+     */
+    void notifyListeners(long deltaCents) {
+        AccountList list = owner;
+        if (list != null) {
+            list.announceChange(this, deltaCents);
         }
+        listeners.forEach(listener -> listener.accountUpdated(this));
     }
 
     /**
@@ -106,6 +382,18 @@ public class Account {
         return id;
     }
 
+    /**
+     * Converts an amount to a whole number of cents, rounding half-even if the amount
+     * carries more than two decimal places.
+     *
+     * @param amount The amount to convert.
+     * @return The amount in cents.
+     * @throws ArithmeticException If the amount does not fit in a long number of cents.
+     */
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
     @Override
     public String toString() {
         // Returns a string representation of the account, including its ID and name.
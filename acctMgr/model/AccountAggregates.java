@@ -0,0 +1,225 @@
+package acctMgr.model;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running totals over the accounts of an {@link AccountList}, kept up to date on every
+ * deposit, withdrawal, transfer, addition and removal. Writers add to striped counters, so
+ * concurrent updates do not contend. Reading the total or count is constant time.
+ * <p>
+ * The lowest and highest balances are widened as balances move past them. When the
+ * account holding an extreme moves back inward, the extremes are marked stale and
+ * recomputed by the next read, which is the only read that scans the accounts.
+ * <p>
+ * The total and count are exact while no deposit races with adding or removing the same
+ * account. The extremes may briefly lag behind writes that are in flight.
+ */
+public class AccountAggregates {
+    private final Collection<Account> accounts;
+    private final LongAdder totalCents = new LongAdder();
+    private final LongAdder count = new LongAdder();
+    private final AtomicLong minCents = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong maxCents = new AtomicLong(Long.MIN_VALUE);
+    private volatile boolean extremesStale;
+
+    /**
+     * Constructs aggregates over a live view of accounts, used to recompute the extremes.
+     *
+     * @param accounts The accounts being aggregated.
+     */
+    AccountAggregates(Collection<Account> accounts) {
+        this.accounts = accounts;
+    }
+
+    /**
+     * Records an account joining the list.
+     *
+     * @param balanceCents The account's balance, in cents.
+     */
+    void accountAdded(long balanceCents) {
+        totalCents.add(balanceCents);
+        count.increment();
+        widen(balanceCents);
+    }
+
+    /**
+     * Records an account leaving the list.
+     *
+     * @param balanceCents The account's balance, in cents.
+     */
+    void accountRemoved(long balanceCents) {
+        totalCents.add(-balanceCents);
+        count.decrement();
+        if (balanceCents == minCents.get() || balanceCents == maxCents.get()) {
+            extremesStale = true;
+        }
+    }
+
+    /**
+     * Records a change to an account's balance. The before and after balances must be the
+     * exact values the updates saw, not values read again afterwards, or an extreme that
+     * moved inward could go unnoticed.
+     *
+     * @param deltaCents The net change, in cents.
+     * @param beforeCents The balance just before the change, in cents.
+     * @param afterCents The balance the change produced, in cents.
+     */
+    void balanceChanged(long deltaCents, long beforeCents, long afterCents) {
+        if (deltaCents != 0) {
+            totalCents.add(deltaCents);
+        }
+        if ((afterCents > beforeCents && beforeCents == minCents.get())
+                || (afterCents < beforeCents && beforeCents == maxCents.get())) {
+            extremesStale = true;
+        }
+        widen(afterCents);
+    }
+
+    /**
+     * Extends the extremes to include a balance. The shared cells are only written when the
+     * balance actually goes past an extreme, so ordinary updates just read them.
+     *
+     * @param balanceCents The balance, in cents.
+     */
+    private void widen(long balanceCents) {
+        long min = minCents.get();
+        while (balanceCents < min && !minCents.compareAndSet(min, balanceCents)) {
+            min = minCents.get();
+        }
+        long max = maxCents.get();
+        while (balanceCents > max && !maxCents.compareAndSet(max, balanceCents)) {
+            max = maxCents.get();
+        }
+    }
+
+    /**
+     * Recomputes every figure from the accounts. Used after the whole list is replaced.
+     */
+    synchronized void rebuild() {
+        long total = 0;
+        long n = 0;
+        for (Account account : accounts) {
+            total += account.getBalanceCents();
+            n++;
+        }
+        totalCents.reset();
+        totalCents.add(total);
+        count.reset();
+        count.add(n);
+        recomputeExtremes();
+    }
+
+    /**
+     * Recomputes the extremes by scanning the accounts.
+     */
+    private synchronized void recomputeExtremes() {
+        extremesStale = false;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (Account account : accounts) {
+            long balance = account.getBalanceCents();
+            min = Math.min(min, balance);
+            max = Math.max(max, balance);
+        }
+        minCents.set(min);
+        maxCents.set(max);
+    }
+
+    /**
+     * Returns the sum of all balances.
+     *
+     * @return The total, in cents.
+     */
+    public long getTotalCents() {
+        return totalCents.sum();
+    }
+
+    /**
+     * Returns the sum of all balances.
+     *
+     * @return The total, in US dollars.
+     */
+    public BigDecimal getTotal() {
+        return BigDecimal.valueOf(getTotalCents(), Account.SCALE);
+    }
+
+    /**
+     * Returns the sum of all balances converted into a currency.
+     *
+     * @param currency The currency to report in.
+     * @return The total in that currency.
+     */
+    public BigDecimal getTotal(CurrencyUnit currency) {
+        return inCurrency(getTotalCents(), currency);
+    }
+
+    /**
+     * Returns the number of accounts.
+     *
+     * @return The account count.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the lowest balance.
+     *
+     * @return The lowest balance in cents, or 0 if there are no accounts.
+     */
+    public long getMinCents() {
+        if (extremesStale) {
+            recomputeExtremes();
+        }
+        long min = minCents.get();
+        return min == Long.MAX_VALUE ? 0 : min;
+    }
+
+    /**
+     * Returns the highest balance.
+     *
+     * @return The highest balance in cents, or 0 if there are no accounts.
+     */
+    public long getMaxCents() {
+        if (extremesStale) {
+            recomputeExtremes();
+        }
+        long max = maxCents.get();
+        return max == Long.MIN_VALUE ? 0 : max;
+    }
+
+    /**
+     * Returns the lowest balance converted into a currency.
+     *
+     * @param currency The currency to report in.
+     * @return The lowest balance in that currency.
+     */
+    public BigDecimal getMin(CurrencyUnit currency) {
+        return inCurrency(getMinCents(), currency);
+    }
+
+    /**
+     * Returns the highest balance converted into a currency.
+     *
+     * @param currency The currency to report in.
+     * @return The highest balance in that currency.
+     */
+    public BigDecimal getMax(CurrencyUnit currency) {
+        return inCurrency(getMaxCents(), currency);
+    }
+
+    /**
+     * Converts an amount in US cents into a currency through the shared engine.
+     *
+     * @param cents The amount, in US cents.
+     * @param currency The currency to convert to.
+     * @return The converted amount.
+     */
+    private static BigDecimal inCurrency(long cents, CurrencyUnit currency) {
+        long converted = CurrencyEngine.getDefault().convertCents(cents, CurrencyUnit.USD, currency);
+        return BigDecimal.valueOf(converted, Account.SCALE);
+    }
+}
@@ -1,39 +1,107 @@
 package acctMgr.model;
 
+import acctMgr.metrics.AccountMetrics;
 import java.io.*;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Manages a list of accounts and provides methods for loading and saving accounts to files.
  * Includes currency conversion methods and synchronization with listeners.
+ * <p>
+ * Accounts are indexed by ID in a concurrent hash map for constant-time lookup, with a
+ * concurrent sorted map alongside it that keeps the accounts ordered by ID. Both maps
+ * support safe concurrent additions and removals, and iteration is weakly consistent.
+ * Account IDs are unique: adding an account with an ID already present replaces it.
  */
 public class AccountList implements Model {
-    private final List<Account> accounts;
-    private final List<ModelListener> listeners;
+    private final ConcurrentHashMap<String, Account> index;
+    private final ConcurrentSkipListMap<String, Account> sorted;
+    private final EventDispatcher dispatcher;
+    private volatile TransactionJournal journal;
 
-    // Currency conversion rates (hardcoded)
-    private static final double USD_TO_EUR = 0.79;
-    private static final double USD_TO_YEN = 94.1;
+    // Incremental save state: accounts changed since the last save, and the file they extend
+    private static final String DELTA_SUFFIX = ".delta";
+    private final Object saveLock = new Object();
+    private final ConcurrentLinkedQueue<Account> dirtyAccounts = new ConcurrentLinkedQueue<>();
+    private volatile boolean removedSinceSave;
+    private String persistedFile;
+    private long persistedGeneration;
+    private int deltaRecords;
+
+    private final CurrencyEngine currencyEngine = CurrencyEngine.getDefault();
+    private final AccountAggregates aggregates;
 
     /**
      * Constructs an AccountList with an empty list of accounts.
      */
     public AccountList() {
-        accounts = new ArrayList<>();
-        listeners = new ArrayList<>();
+        index = new ConcurrentHashMap<>();
+        sorted = new ConcurrentSkipListMap<>();
+        dispatcher = new EventDispatcher();
+        aggregates = new AccountAggregates(index.values());
     }
 
     /**
-     * Adds an account to the list.
+     * Adds an account to the list, replacing any account with the same ID.
      *
      * @param account The account to add.
+     * @throws IllegalArgumentException If a journal is attached and the account's ID or name
+     *                                  is too long to record.
      */
     public void addAccount(Account account) {
-        accounts.add(account);
-        notifyChanged(new ModelEvent(ModelEvent.EventKind.BalanceUpdate, account.getBalance(), AgentStatus.NA));
+        TransactionJournal j = journal;
+        if (j != null) {
+            TransactionJournal.checkFields(account.getId(), account.getName());
+        }
+        // Counted before it is published, so no other thread can change it uncounted
+        account.setOwner(this);
+        long counted = account.getBalanceCents();
+        aggregates.accountAdded(counted);
+        Account previous;
+        if (j == null) {
+            previous = putIndexed(account);
+        } else {
+            long sequence;
+            j.beginAppend();
+            try {
+                previous = putIndexed(account);
+                sequence = j.append(TransactionJournal.RecordType.Open, account.getId(), account.getName(),
+                        account.getBalanceCents());
+            } finally {
+                j.endAppend();
+            }
+            j.awaitDurable(sequence);
+        }
+        if (previous == account) {
+            // Already listed and counted, so take back the count made above
+            aggregates.accountRemoved(counted);
+        } else if (previous != null) {
+            previous.setOwner(null);
+            aggregates.accountRemoved(previous.getBalanceCents());
+        }
+        account.setJournal(j);
+        if (account.markDirty()) {
+            dirtyAccounts.add(account);
+        }
+        notifyChanged(new ModelEvent(ModelEvent.EventKind.AccountAdded, account.getId(), account.getBalance(), AgentStatus.NA));
     }
 
     /**
@@ -42,72 +110,700 @@ public class AccountList implements Model {
      * @param account The account to remove.
      */
     public void removeAccount(Account account) {
-        accounts.remove(account);
-        notifyChanged(new ModelEvent(ModelEvent.EventKind.BalanceUpdate, account.getBalance(), AgentStatus.NA));
+        TransactionJournal j = journal;
+        boolean removed;
+        if (j == null) {
+            removed = removeIndexed(account);
+        } else {
+            long sequence = 0;
+            j.beginAppend();
+            try {
+                removed = removeIndexed(account);
+                if (removed) {
+                    sequence = j.append(TransactionJournal.RecordType.Close, account.getId(), null, 0);
+                }
+            } finally {
+                j.endAppend();
+            }
+            j.awaitDurable(sequence);
+        }
+        account.setJournal(null);
+        account.setOwner(null);
+        if (removed) {
+            aggregates.accountRemoved(account.getBalanceCents());
+        }
+        removedSinceSave = true;
+        notifyChanged(new ModelEvent(ModelEvent.EventKind.AccountRemoved, account.getId(), account.getBalance(), AgentStatus.NA));
     }
 
     /**
-     * Loads accounts from a specified file and sorts them by ID.
+     * Records that an account in this list changed, so the next incremental save writes it
+     * and the aggregates include the change.
      *
-     * @param fileName The name of the file to load accounts from.
-     * @throws IOException If an I/O error occurs during reading.
+     * @param account The account that changed.
+     * @param deltaCents The net change to the balance, in cents.
+     * @param beforeCents The balance just before the change, in cents.
+     * @param afterCents The balance the change produced, in cents.
+     */
+    void accountChanged(Account account, long deltaCents, long beforeCents, long afterCents) {
+        if (account.markDirty()) {
+            dirtyAccounts.add(account);
+        }
+        aggregates.balanceChanged(deltaCents, beforeCents, afterCents);
+    }
+
+    /**
+     * Sends a BalanceUpdate event for a durable change to the listeners interested in that
+     * account.
+     *
+     * @param account The account that changed.
+     * @param deltaCents The net change to the balance, in cents.
+     */
+    void announceChange(Account account, long deltaCents) {
+        if (dispatcher.isObserved(account.getId())) {
+            dispatcher.dispatch(new ModelEvent(ModelEvent.EventKind.BalanceUpdate, account.getId(),
+                    account.getBalance(), BigDecimal.valueOf(deltaCents, Account.SCALE), AgentStatus.NA));
+        }
+    }
+
+    /**
+     * Atomically moves an amount from one account to another. The two accounts are locked
+     * in ascending ID order, so concurrent transfers between the same accounts in opposite
+     * directions cannot deadlock. Listeners of both accounts are notified, and a single
+     * {@link ModelEvent.EventKind#AmountTransferredUpdate} event is sent to model listeners.
+     *
+     * @param fromId The ID of the account to withdraw from.
+     * @param toId   The ID of the account to deposit into.
+     * @param amount The amount to transfer.
+     * @throws OverdrawException        If the source account does not hold enough funds.
+     * @throws IllegalArgumentException If either account does not exist, both IDs are the same,
+     *                                  or the amount is not positive.
+     */
+    public void transfer(String fromId, String toId, BigDecimal amount) throws OverdrawException {
+        Account from = findById(fromId);
+        Account to = findById(toId);
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Unknown account: " + (from == null ? fromId : toId));
+        }
+        if (from == to) {
+            throw new IllegalArgumentException("Cannot transfer within the same account: " + fromId);
+        }
+        long amountCents = Account.toCents(amount);
+        if (amountCents <= 0) {
+            throw new IllegalArgumentException("Amount must be positive: " + BigDecimal.valueOf(amountCents, Account.SCALE));
+        }
+
+        // Always lock the account with the lower ID first
+        Account first = fromId.compareTo(toId) < 0 ? from : to;
+        Account second = first == from ? to : from;
+        TransactionJournal j = journal;
+        long sequence = 0;
+        long fromBalance;
+        long toBalance;
+        first.getLock().lock();
+        try {
+            second.getLock().lock();
+            try {
+                if (j != null) {
+                    j.beginAppend();
+                }
+                try {
+                    fromBalance = from.applyWithdraw(amountCents);
+                    if (fromBalance < 0) {
+                        throw new OverdrawException(BigDecimal.valueOf(-fromBalance, Account.SCALE));
+                    }
+                    toBalance = to.applyDeposit(amountCents);
+                    if (j != null) {
+                        sequence = j.append(TransactionJournal.RecordType.Transfer, fromId, toId, amountCents);
+                    }
+                } finally {
+                    if (j != null) {
+                        j.endAppend();
+                    }
+                }
+            } finally {
+                second.getLock().unlock();
+            }
+        } finally {
+            first.getLock().unlock();
+        }
+        from.recordChange(-amountCents, fromBalance);
+        to.recordChange(amountCents, toBalance);
+        if (j != null) {
+            j.awaitDurable(sequence);
+        }
+
+        from.notifyListeners(-amountCents);
+        to.notifyListeners(amountCents);
+        notifyChanged(new ModelEvent(ModelEvent.EventKind.AmountTransferredUpdate, fromId,
+                BigDecimal.valueOf(amountCents, Account.SCALE), AgentStatus.NA));
+    }
+
+    /**
+     * Attaches a write-ahead journal. From then on every deposit, withdrawal, transfer,
+     * addition, and removal is recorded in the journal and made durable before it is
+     * acknowledged. Accounts already in the list are not recorded; callers persist that
+     * starting state themselves, for example with a snapshot.
+     *
+     * @param journal The journal to attach, or {@code null} to detach.
+     * @throws IllegalArgumentException If an account's ID or name is too long to record.
+     */
+    public void attachJournal(TransactionJournal journal) {
+        // Refuse up front rather than fail once an update has already been applied
+        for (Account account : sorted.values()) {
+            TransactionJournal.checkFields(account.getId(), account.getName());
+        }
+        this.journal = journal;
+        for (Account account : sorted.values()) {
+            account.setJournal(journal);
+        }
+    }
+
+    /**
+     * Returns the attached write-ahead journal.
+     *
+     * @return The journal, or {@code null} if none is attached.
+     */
+    public TransactionJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Rebuilds the account list from the latest valid snapshot followed by the journal
+     * records written after it. Replay applies each record's change exactly as logged,
+     * without re-checking for overdraws, so the result matches the state that was
+     * acknowledged before shutdown or crash.
+     *
+     * @param snapshots   The snapshot store to load from.
+     * @param journalFile The journal file whose tail is replayed.
+     * @return The sequence number of the last journal record applied.
+     * @throws IOException If the snapshot or journal cannot be read, or a record names an
+     *                     account that does not exist at that point.
+     * @throws IllegalStateException If a journal is attached.
+     */
+    public long restore(SnapshotStore snapshots, Path journalFile) throws IOException {
+        SnapshotStore.Snapshot snapshot = snapshots.loadLatest();
+        Map<String, Account> restored = new LinkedHashMap<>();
+        long after = 0;
+        if (snapshot != null) {
+            for (Account account : snapshot.getAccounts()) {
+                restored.put(account.getId(), account);
+            }
+            after = snapshot.getSequence();
+        }
+        long last;
+        try {
+            last = TransactionJournal.replay(journalFile, after, record -> replayRecord(restored, record));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        replaceAccounts(restored.values());
+        return last;
+    }
+
+    /**
+     * Applies one journal record to the accounts being restored.
+     *
+     * @param restored The accounts restored so far, by ID.
+     * @param record The record.
+     * @throws UncheckedIOException If the record names an account that does not exist.
+     */
+    private static void replayRecord(Map<String, Account> restored, TransactionJournal.JournalRecord record) {
+        Account account = record.getType() == TransactionJournal.RecordType.Open ? null
+                : replayTarget(restored, record, record.getAccountId());
+        switch (record.getType()) {
+            case Open:
+                restored.put(record.getAccountId(),
+                        new Account(record.getName(), record.getAccountId(), record.getAmountCents()));
+                break;
+            case Close:
+                restored.remove(record.getAccountId());
+                break;
+            case Deposit:
+                account.applyDeposit(record.getAmountCents());
+                break;
+            case Withdraw:
+                account.applyDeposit(-record.getAmountCents());
+                break;
+            case Transfer:
+                Account to = replayTarget(restored, record, record.getToAccountId());
+                account.applyDeposit(-record.getAmountCents());
+                to.applyDeposit(record.getAmountCents());
+                break;
+        }
+    }
+
+    /**
+     * Looks up an account named by a journal record.
+     *
+     * @param restored The accounts restored so far, by ID.
+     * @param record The record.
+     * @param accountId The ID the record names.
+     * @return The account.
+     * @throws UncheckedIOException If there is no such account.
+     */
+    private static Account replayTarget(Map<String, Account> restored, TransactionJournal.JournalRecord record,
+            String accountId) {
+        Account account = restored.get(accountId);
+        if (account == null) {
+            throw new UncheckedIOException(new IOException("Journal record " + record.getSequence() + " ("
+                    + record.getType() + ") names unknown account " + accountId));
+        }
+        return account;
+    }
+
+    /**
+     * Applies a batch of postings. Postings are grouped by account and each group is applied
+     * under a single acquisition of that account's lock, in batch order. A posting that would
+     * overdraw its account, or that names an unknown account, is skipped and reported in the
+     * result rather than thrown. Each touched account notifies its listeners once, and one
+     * {@link ModelEvent.EventKind#BalanceUpdate} event is sent per touched account.
+     *
+     * @param transactions The postings to apply.
+     * @return The number of applied postings and the postings that failed.
      */
-    public synchronized void loadAccounts(String fileName) throws IOException {
-        List<Account> tempAccounts = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (line.trim().isEmpty()) {
+    public BatchResult applyBatch(Collection<Transaction> transactions) {
+        Map<String, PostingGroup> groups = new LinkedHashMap<>();
+        List<BatchResult.Failure> failures = new ArrayList<>();
+        int position = 0;
+        for (Transaction transaction : transactions) {
+            PostingGroup group = groups.get(transaction.getAccountId());
+            if (group == null) {
+                Account account = findById(transaction.getAccountId());
+                if (account == null) {
+                    failures.add(new BatchResult.Failure(position++, transaction,
+                            BatchResult.FailureReason.UnknownAccount, 0));
                     continue;
                 }
-                String[] parts = line.split(",");
-                if (parts.length >= 3) {
-                    try {
-                        String name = parts[0].trim();
-                        String id = parts[1].trim();
-                        BigDecimal balance = new BigDecimal(parts[2].trim());
-                        Account account = new Account(name, id, balance);
-                        tempAccounts.add(account);
-                    } catch (NumberFormatException e) {
-                        System.err.println("Invalid balance format on line: " + line);
+                group = new PostingGroup(account);
+                groups.put(transaction.getAccountId(), group);
+            }
+            group.add(transaction, position++);
+        }
+
+        TransactionJournal j = journal;
+        long lastSequence = 0;
+        int applied = 0;
+        for (PostingGroup group : groups.values()) {
+            Account account = group.account;
+            account.getLock().lock();
+            if (j != null) {
+                j.beginAppend();
+            }
+            try {
+                for (int i = 0; i < group.size; i++) {
+                    Transaction transaction = group.transactions[i];
+                    TransactionJournal.RecordType type;
+                    long balance;
+                    long delta;
+                    if (transaction.getKind() == Transaction.Kind.Deposit) {
+                        balance = account.applyDeposit(transaction.getAmountCents());
+                        delta = transaction.getAmountCents();
+                        type = TransactionJournal.RecordType.Deposit;
+                    } else {
+                        balance = account.applyWithdraw(transaction.getAmountCents());
+                        if (balance < 0) {
+                            failures.add(new BatchResult.Failure(group.positions[i], transaction,
+                                    BatchResult.FailureReason.Overdraw, -balance));
+                            continue;
+                        }
+                        delta = -transaction.getAmountCents();
+                        type = TransactionJournal.RecordType.Withdraw;
                     }
+                    group.applied(delta, balance);
+                    applied++;
+                    if (j != null) {
+                        lastSequence = j.append(type, account.getId(), null, transaction.getAmountCents());
+                    }
+                }
+            } finally {
+                if (j != null) {
+                    j.endAppend();
+                }
+                account.getLock().unlock();
+            }
+            if (group.changed) {
+                account.recordChange(group.deltaCents, group.beforeCents, group.afterCents);
+            }
+        }
+        // One durability wait covers the whole batch
+        if (j != null) {
+            j.awaitDurable(lastSequence);
+        }
+
+        // Coalesce notifications: one per touched account rather than one per posting
+        for (PostingGroup group : groups.values()) {
+            if (group.changed) {
+                group.account.notifyListeners(group.deltaCents);
+            }
+        }
+        failures.sort(Comparator.comparingInt(BatchResult.Failure::getPosition));
+        return new BatchResult(applied, failures);
+    }
+
+    /**
+     * The postings of a batch that target one account, with their positions in the batch.
+     */
+    private static class PostingGroup {
+        private final Account account;
+        private Transaction[] transactions = new Transaction[4];
+        private int[] positions = new int[4];
+        private int size;
+        private long deltaCents;
+        private long beforeCents;
+        private long afterCents;
+        private boolean changed;
+
+        PostingGroup(Account account) {
+            this.account = account;
+        }
+
+        void applied(long delta, long balance) {
+            if (!changed) {
+                beforeCents = balance - delta;
+                changed = true;
+            }
+            deltaCents += delta;
+            afterCents = balance;
+        }
+
+        void add(Transaction transaction, int position) {
+            if (size == transactions.length) {
+                transactions = Arrays.copyOf(transactions, size * 2);
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            transactions[size] = transaction;
+            positions[size] = position;
+            size++;
+        }
+    }
+
+    /**
+     * Loads accounts from a specified file and sorts them by ID. Large files are split
+     * into line-aligned chunks that are parsed in parallel; see {@link CsvAccountLoader}.
+     * Lines that cannot be parsed are skipped and listed in the returned report.
+     *
+     * @param fileName The name of the file to load accounts from.
+     * @return The number of accounts loaded and the lines that were rejected.
+     * @throws IOException If an I/O error occurs during reading.
+     * @throws IllegalStateException If a journal is attached.
+     */
+    public synchronized LoadReport loadAccounts(String fileName) throws IOException {
+        long start = System.nanoTime();
+        try {
+            LoadReport report = new CsvAccountLoader().load(Paths.get(fileName), this);
+            AccountMetrics.get().recordLoad(start, Files.size(Paths.get(fileName)));
+            synchronized (saveLock) {
+                // What was just loaded is exactly what the file and its delta hold, so later
+                // changes may extend that delta; without a stamp, or with a stale delta in the
+                // way, the next incremental save has to be a full one
+                Path path = Paths.get(fileName);
+                OptionalLong generation = CsvAccountLoader.readGeneration(path);
+                if (generation.isPresent()
+                        && (!Files.exists(CsvAccountLoader.deltaOf(path)) || CsvAccountLoader.deltaMatches(path))) {
+                    persistedFile = fileName;
+                    persistedGeneration = generation.getAsLong();
                 } else {
-                    System.err.println("Invalid line format (missing parts): " + line);
+                    persistedFile = null;
                 }
+                deltaRecords = 0;
             }
-            // Sort the accounts by ID
-            tempAccounts.sort(Comparator.comparing(Account::getId));
-            accounts.clear();
-            accounts.addAll(tempAccounts);
+            return report;
         } catch (IOException e) {
+            AccountMetrics.get().recordIoFailure();
             System.err.println("Error loading accounts from file: " + e.getMessage());
             throw e;
         }
     }
 
     /**
-     * Saves accounts to a specified file.
+     * Saves accounts to a specified file, rewriting it completely and discarding any
+     * delta file written by {@link #saveAccountsIncremental(String)}.
+     * <p>
+     * The save is crash-safe: the balances are copied first (under the journal's append
+     * lock when a journal is attached, so the copy is a consistent cut), written to a
+     * temporary file in the same directory, fsynced, and atomically renamed over the
+     * target. A crash at any point leaves either the old or the new file intact.
      *
      * @param fileName The name of the file to save accounts to.
      * @throws IOException If an I/O error occurs during writing.
      */
     public void saveAccounts(String fileName) throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName))) {
-            for (Account account : accounts) {
-                String line = account.getName() + "," + account.getId() + "," + account.getBalance();
-                writer.write(line);
+        long start = System.nanoTime();
+        try {
+            writeFull(fileName);
+        } catch (IOException | RuntimeException e) {
+            AccountMetrics.get().recordIoFailure();
+            throw e;
+        }
+        AccountMetrics.get().recordSave(start, Files.size(Paths.get(fileName)));
+    }
+
+    /**
+     * Writes every account to the file, as described for {@link #saveAccounts(String)}.
+     *
+     * @param fileName The name of the file to save accounts to.
+     * @throws IOException If an I/O error occurs during writing.
+     */
+    private void writeFull(String fileName) throws IOException {
+        synchronized (saveLock) {
+            // Changes made from here on are picked up by the next incremental save
+            persistedFile = null;
+            for (Account account; (account = dirtyAccounts.poll()) != null; ) {
+                account.clearDirty();
+            }
+            removedSinceSave = false;
+
+            List<Account> accounts = new ArrayList<>(size() + 16);
+            long[] balances = new long[size() + 16];
+            TransactionJournal j = journal;
+            if (j != null) {
+                j.beginAppend();
+            }
+            try {
+                for (Account account : sorted.values()) {
+                    if (accounts.size() == balances.length) {
+                        balances = Arrays.copyOf(balances, balances.length * 2);
+                    }
+                    balances[accounts.size()] = account.getBalanceCents();
+                    accounts.add(account);
+                }
+            } finally {
+                if (j != null) {
+                    j.endAppend();
+                }
+            }
+
+            Path target = Paths.get(fileName).toAbsolutePath();
+            Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+            // A fresh stamp, so no delta from an earlier save can be mistaken for this one's
+            long generation = ThreadLocalRandom.current().nextLong();
+            try (FileOutputStream out = new FileOutputStream(temp.toFile())) {
+                BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+                writer.write(CsvAccountLoader.GENERATION_PREFIX + generation);
                 writer.newLine();
+                for (int i = 0; i < accounts.size(); i++) {
+                    Account account = accounts.get(i);
+                    writer.write(account.getName() + "," + account.getId() + ","
+                            + BigDecimal.valueOf(balances[i], Account.SCALE));
+                    writer.newLine();
+                }
+                writer.flush();
+                out.getFD().sync();
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            // A delta left behind by a crash here has an older stamp and is ignored on load
+            Files.deleteIfExists(Paths.get(fileName + DELTA_SUFFIX));
+            persistedFile = fileName;
+            persistedGeneration = generation;
+            deltaRecords = 0;
+        }
+    }
+
+    /**
+     * Saves only the accounts that changed since the last save or load of the same file,
+     * appending them to a delta file ({@code fileName + ".delta"}) that
+     * {@link #loadAccounts(String)} merges over the base file. The time taken is
+     * proportional to the number of changes. Falls back to a full {@link #saveAccounts(String)}
+     * when the file was not the last one saved or loaded, when accounts were removed, or
+     * when the delta has grown to a quarter of the book, which also compacts it.
+     *
+     * @param fileName The name of the file to save accounts to.
+     * @throws IOException If an I/O error occurs during writing.
+     */
+    public void saveAccountsIncremental(String fileName) throws IOException {
+        synchronized (saveLock) {
+            if (!fileName.equals(persistedFile) || removedSinceSave
+                    || deltaRecords > Math.max(1024, size() / 4) || !Files.exists(Paths.get(fileName))) {
+                saveAccounts(fileName);
+                return;
+            }
+            long start = System.nanoTime();
+            boolean complete = false;
+            try (FileOutputStream out = new FileOutputStream(fileName + DELTA_SUFFIX, true)) {
+                long startPosition = out.getChannel().position();
+                BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                if (startPosition == 0) {
+                    // Tie the new delta to the full save it extends
+                    writer.write(CsvAccountLoader.GENERATION_PREFIX + persistedGeneration);
+                    writer.newLine();
+                }
+                for (Account account; (account = dirtyAccounts.poll()) != null; ) {
+                    account.clearDirty();
+                    if (index.get(account.getId()) == account) {
+                        writer.write(formatLine(account));
+                        writer.newLine();
+                        deltaRecords++;
+                    }
+                }
+                writer.flush();
+                out.getFD().sync();
+                complete = true;
+                AccountMetrics.get().recordSave(start, out.getChannel().position() - startPosition);
+            } finally {
+                if (!complete) {
+                    AccountMetrics.get().recordIoFailure();
+                    // Drained changes may not have reached the disk; make the next save a full one
+                    persistedFile = null;
+                }
             }
         }
     }
 
     /**
-     * Returns the list of accounts.
+     * Formats an account as a line of the CSV account file.
+     *
+     * @param account The account to format.
+     * @return The line, without a line separator.
+     */
+    private static String formatLine(Account account) {
+        return account.getName() + "," + account.getId() + "," + account.getBalance();
+    }
+
+    /**
+     * Loads accounts from a binary account file written by {@link #saveAccountsBinary(Path)}.
+     *
+     * @param path The binary file to load accounts from.
+     * @throws IOException If the file cannot be read or is not a binary account file.
+     * @throws IllegalStateException If a journal is attached.
+     */
+    public void loadAccountsBinary(Path path) throws IOException {
+        try (BinaryAccountStore store = BinaryAccountStore.open(path)) {
+            store.loadInto(this);
+        }
+    }
+
+    /**
+     * Saves accounts to a binary account file; see {@link BinaryAccountStore} for the format.
+     *
+     * @param path The binary file to save accounts to.
+     * @throws IOException If an I/O error occurs during writing.
+     */
+    public void saveAccountsBinary(Path path) throws IOException {
+        BinaryAccountStore.write(path, sorted.values());
+    }
+
+    /**
+     * Replaces the current contents with the given accounts. The sorted view takes care
+     * of ordering by ID; later accounts win when IDs repeat. Listeners receive a single
+     * AccountsReloaded event rather than one event per account.
+     *
+     * @param newAccounts The accounts to install.
+     * @throws IllegalStateException If a journal is attached, since the swap itself is not
+     *                               journaled and a later restore could not replay over it.
+     */
+    synchronized void replaceAccounts(Collection<Account> newAccounts) {
+        if (journal != null) {
+            throw new IllegalStateException("Cannot replace the accounts while a journal is attached");
+        }
+        Map<String, Account> byId = new LinkedHashMap<>();
+        for (Account account : newAccounts) {
+            byId.put(account.getId(), account);
+        }
+        for (Account existing : index.values()) {
+            if (!byId.containsKey(existing.getId())) {
+                removeIndexed(existing);
+                existing.setOwner(null);
+            }
+        }
+        for (Account account : byId.values()) {
+            putIndexed(account);
+            account.setJournal(journal);
+            account.setOwner(this);
+            account.clearDirty();
+        }
+        synchronized (saveLock) {
+            dirtyAccounts.clear();
+            persistedFile = null;
+        }
+        aggregates.rebuild();
+        notifyChanged(new ModelEvent(ModelEvent.EventKind.AccountsReloaded, null, AgentStatus.NA));
+    }
+
+    /**
+     * Inserts an account into both the hash index and the sorted view. The sorted view is
+     * updated inside {@code compute} so the two maps stay consistent for each ID.
+     *
+     * @param account The account to insert.
+     * @return The account previously registered under the ID, or {@code null}.
+     */
+    private Account putIndexed(Account account) {
+        Account[] replaced = {null};
+        index.compute(account.getId(), (id, previous) -> {
+            sorted.put(id, account);
+            replaced[0] = previous;
+            return account;
+        });
+        return replaced[0];
+    }
+
+    /**
+     * Removes an account from both the hash index and the sorted view, provided it is
+     * still the account registered under its ID.
+     *
+     * @param account The account to remove.
+     * @return {@code true} if the account was removed.
+     */
+    private boolean removeIndexed(Account account) {
+        boolean[] removed = {false};
+        index.computeIfPresent(account.getId(), (id, existing) -> {
+            if (existing != account) {
+                return existing;
+            }
+            sorted.remove(id, existing);
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    /**
+     * Returns the running totals over the accounts: total balance, count, and the lowest
+     * and highest balance. They are maintained on every change, so reading them does not
+     * scan the accounts.
+     *
+     * @return The aggregates of this list.
+     */
+    public AccountAggregates getAggregates() {
+        return aggregates;
+    }
+
+    /**
+     * Returns a snapshot of the accounts, sorted by ID.
      *
      * @return The list of accounts.
      */
     public List<Account> getAccounts() {
-        return accounts;
+        return Collections.unmodifiableList(new ArrayList<>(sorted.values()));
+    }
+
+    /**
+     * Returns a live, weakly consistent view of the accounts in ID order. Iterating it
+     * never throws {@link java.util.ConcurrentModificationException} and does not copy.
+     *
+     * @return The accounts, sorted by ID.
+     */
+    public Collection<Account> accounts() {
+        return Collections.unmodifiableCollection(sorted.values());
+    }
+
+    /**
+     * Looks up an account by its ID.
+     *
+     * @param id The ID of the account.
+     * @return The account, or {@code null} if no account has that ID.
+     */
+    public Account findById(String id) {
+        return index.get(id);
+    }
+
+    /**
+     * Returns the number of accounts.
+     *
+     * @return The number of accounts.
+     */
+    public int size() {
+        return index.size();
     }
 
     /**
@@ -116,7 +812,17 @@ public class AccountList implements Model {
      * @param listener The ModelListener to add.
      */
     public void addModelListener(ModelListener listener) {
-        listeners.add(listener);
+        dispatcher.addListener(listener);
+    }
+
+    /**
+     * Adds a ModelListener that is held weakly, so that registering does not keep the
+     * listener alive. It is dropped automatically once garbage collected.
+     *
+     * @param listener The ModelListener to add.
+     */
+    public void addWeakModelListener(ModelListener listener) {
+        dispatcher.addWeakListener(listener);
     }
 
     /**
@@ -125,18 +831,66 @@ public class AccountList implements Model {
      * @param listener The ModelListener to remove.
      */
     public void removeModelListener(ModelListener listener) {
-        listeners.remove(listener);
+        dispatcher.removeListener(listener);
     }
 
     /**
-     * Notifies all listeners of a model change.
+     * Subscribes a listener to the events about one account only. Balance changes to other
+     * accounts are not delivered to it.
+     *
+     * @param accountId The ID of the account to follow.
+     * @param listener The listener to add.
+     */
+    public void subscribe(String accountId, ModelListener listener) {
+        dispatcher.subscribe(accountId, listener);
+    }
+
+    /**
+     * Subscribes a listener to the events about every account whose ID is at least
+     * {@code fromId} and less than {@code toId}.
+     *
+     * @param fromId The lowest ID to follow, inclusive.
+     * @param toId The end of the ID range, exclusive.
+     * @param listener The listener to add.
+     */
+    public void subscribeRange(String fromId, String toId, ModelListener listener) {
+        dispatcher.subscribeRange(fromId, toId, listener);
+    }
+
+    /**
+     * Removes a listener's subscription to one account.
+     *
+     * @param accountId The ID of the account.
+     * @param listener The listener to remove.
+     */
+    public void unsubscribe(String accountId, ModelListener listener) {
+        dispatcher.unsubscribe(accountId, listener);
+    }
+
+    /**
+     * Removes every account and range subscription of a listener.
+     *
+     * @param listener The listener to remove.
+     */
+    public void unsubscribe(ModelListener listener) {
+        dispatcher.unsubscribe(listener);
+    }
+
+    /**
+     * Queues a model change for asynchronous delivery to all listeners. Balance updates for
+     * the same account that arrive close together are merged.
      *
      * @param event The ModelEvent to notify listeners of.
      */
     public void notifyChanged(ModelEvent event) {
-        for (ModelListener listener : listeners) {
-            listener.modelChanged(event);
-        }
+        dispatcher.dispatch(event);
+    }
+
+    /**
+     * Delivers any queued events and waits until they have reached the listeners.
+     */
+    public void flushEvents() {
+        dispatcher.flush().join();
     }
 
     /**
@@ -146,7 +900,7 @@ public class AccountList implements Model {
      * @return The equivalent amount in Euros.
      */
     public BigDecimal convertUsdToEur(BigDecimal amount) {
-        return amount.multiply(BigDecimal.valueOf(USD_TO_EUR));
+        return currencyEngine.convert(amount, CurrencyUnit.USD, CurrencyUnit.EUR);
     }
 
     /**
@@ -156,7 +910,7 @@ public class AccountList implements Model {
      * @return The equivalent amount in Yen.
      */
     public BigDecimal convertUsdToYen(BigDecimal amount) {
-        return amount.multiply(BigDecimal.valueOf(USD_TO_YEN));
+        return currencyEngine.convert(amount, CurrencyUnit.USD, CurrencyUnit.JPY);
     }
 
     /**
@@ -166,7 +920,7 @@ public class AccountList implements Model {
      * @return The equivalent amount in USD.
      */
     public BigDecimal convertEurToUsd(BigDecimal amount) {
-        return amount.divide(BigDecimal.valueOf(USD_TO_EUR), 2, BigDecimal.ROUND_HALF_UP);
+        return currencyEngine.convert(amount, CurrencyUnit.EUR, CurrencyUnit.USD);
     }
 
     /**
@@ -176,7 +930,23 @@ public class AccountList implements Model {
      * @return The equivalent amount in USD.
      */
     public BigDecimal convertYenToUsd(BigDecimal amount) {
-        return amount.divide(BigDecimal.valueOf(USD_TO_YEN), 2, BigDecimal.ROUND_HALF_UP);
+        return currencyEngine.convert(amount, CurrencyUnit.JPY, CurrencyUnit.USD);
+    }
+
+    /**
+     * Converts every balance into a currency, using one set of rates for all of them.
+     *
+     * @param currency The currency to convert to.
+     * @return The converted balances keyed by account ID, in ID order.
+     */
+    public Map<String, BigDecimal> convertBalances(CurrencyUnit currency) {
+        List<Account> accounts = getAccounts();
+        long[] converted = currencyEngine.convertBalances(accounts, currency);
+        Map<String, BigDecimal> balances = new LinkedHashMap<>();
+        for (int i = 0; i < converted.length; i++) {
+            balances.put(accounts.get(i).getId(), BigDecimal.valueOf(converted[i], Account.SCALE));
+        }
+        return balances;
     }
 
     /**
@@ -185,6 +955,6 @@ public class AccountList implements Model {
      * @param account The account that was updated.
      */
     public void updateAccountViews(Account account) {
-        notifyChanged(new ModelEvent(ModelEvent.EventKind.BalanceUpdate, account.getBalance(), AgentStatus.NA));
+        notifyChanged(new ModelEvent(ModelEvent.EventKind.BalanceUpdate, account.getId(), account.getBalance(), AgentStatus.NA));
     }
 }
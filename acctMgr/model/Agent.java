@@ -0,0 +1,204 @@
+package acctMgr.model;
+
+import java.math.BigDecimal;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An automated agent that repeatedly deposits into or withdraws from an account at a fixed
+ * period. Agents are models: every status change is published to model listeners as an
+ * {@link ModelEvent.EventKind#AgentStatusUpdate} event.
+ * <p>
+ * A withdraw agent that would overdraw its account moves to {@link AgentStatus#Blocked} and
+ * parks until a deposit brings in enough funds, then carries on as {@link AgentStatus#Running}.
+ * Agents are started through an {@link AgentManager}, which runs each one on a virtual thread.
+ */
+public class Agent extends AbstractModel implements Runnable {
+    /**
+     * Enumeration of agent kinds.
+     */
+    public enum Kind {
+        Deposit, Withdraw
+    }
+
+    private final Account account;
+    private final Kind kind;
+    private final long amountCents;
+    private final long periodMillis;
+
+    private final ReentrantLock pauseLock = new ReentrantLock();
+    private final Condition resumed = pauseLock.newCondition();
+    private boolean paused;
+    private volatile boolean stopped;
+    private volatile Thread thread;
+    private volatile AgentStatus status = AgentStatus.NA;
+
+    /**
+     * Constructs an Agent for the given account.
+     *
+     * @param account      The account the agent operates on.
+     * @param kind         Whether the agent deposits or withdraws.
+     * @param amount       The amount moved on each operation.
+     * @param periodMillis The delay between operations, in milliseconds.
+     */
+    public Agent(Account account, Kind kind, BigDecimal amount, long periodMillis) {
+        this.account = account;
+        this.kind = kind;
+        this.amountCents = Account.toCents(amount);
+        this.periodMillis = periodMillis;
+    }
+
+    /**
+     * Runs the agent until it is stopped.
+     */
+    @Override
+    public void run() {
+        thread = Thread.currentThread();
+        try {
+            while (!stopped) {
+                awaitResumed();
+                if (stopped) {
+                    break;
+                }
+                setStatus(AgentStatus.Running);
+                operate();
+                if (periodMillis > 0) {
+                    Thread.sleep(periodMillis);
+                }
+            }
+        } catch (InterruptedException e) {
+            // Interrupted by stop(); fall through and finish
+        } finally {
+            thread = null;
+            setStatus(AgentStatus.NA);
+        }
+    }
+
+    /**
+     * Performs one deposit or withdrawal, blocking a withdrawal until funds are available.
+     *
+     * @throws InterruptedException If the agent is stopped while blocked.
+     */
+    private void operate() throws InterruptedException {
+        if (kind == Kind.Deposit) {
+            account.depositCents(amountCents);
+            return;
+        }
+        // Declines are routine for a withdraw agent, so use the exception-free path
+        while (account.tryWithdrawCents(amountCents) > 0) {
+            setStatus(AgentStatus.Blocked);
+            account.awaitFunds(amountCents);
+            setStatus(AgentStatus.Running);
+        }
+    }
+
+    /**
+     * Waits while the agent is paused.
+     *
+     * @throws InterruptedException If the agent is stopped while paused.
+     */
+    private void awaitResumed() throws InterruptedException {
+        pauseLock.lock();
+        try {
+            if (paused) {
+                setStatus(AgentStatus.Paused);
+            }
+            while (paused && !stopped) {
+                resumed.await();
+            }
+        } finally {
+            pauseLock.unlock();
+        }
+    }
+
+    /**
+     * Pauses the agent. An operation in progress completes first.
+     */
+    public void pause() {
+        pauseLock.lock();
+        try {
+            paused = true;
+        } finally {
+            pauseLock.unlock();
+        }
+    }
+
+    /**
+     * Resumes a paused agent.
+     */
+    public void resume() {
+        pauseLock.lock();
+        try {
+            paused = false;
+            resumed.signalAll();
+        } finally {
+            pauseLock.unlock();
+        }
+    }
+
+    /**
+     * Stops the agent, waking it if it is paused, blocked, or sleeping.
+     */
+    public void stop() {
+        stopped = true;
+        resume();
+        Thread t = thread;
+        if (t != null) {
+            t.interrupt();
+        }
+    }
+
+    /**
+     * Updates the agent status and notifies listeners if it changed.
+     *
+     * @param newStatus The new status.
+     */
+    private void setStatus(AgentStatus newStatus) {
+        if (status != newStatus) {
+            status = newStatus;
+            notifyChanged(new ModelEvent(ModelEvent.EventKind.AgentStatusUpdate, account.getId(), account.getBalance(), newStatus));
+        }
+    }
+
+    /**
+     * Returns the current status of the agent.
+     *
+     * @return The agent status.
+     */
+    public AgentStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the account the agent operates on.
+     *
+     * @return The account.
+     */
+    public Account getAccount() {
+        return account;
+    }
+
+    /**
+     * Returns whether the agent deposits or withdraws.
+     *
+     * @return The agent kind.
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns whether the agent has been stopped.
+     *
+     * @return {@code true} if {@link #stop()} has been called.
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    @Override
+    public String toString() {
+        return kind + " agent " + BigDecimal.valueOf(amountCents, Account.SCALE) + " every " + periodMillis
+                + "ms on " + account + " [" + status + "]";
+    }
+}
@@ -0,0 +1,94 @@
+package acctMgr.model;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts and tracks {@link Agent}s, running each agent on its own virtual thread so that
+ * thousands of agents can be active at once without tying up platform threads.
+ */
+public class AgentManager implements AutoCloseable {
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<Agent> agents = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Starts an agent that deposits the given amount into an account every period.
+     *
+     * @param account      The account to deposit into.
+     * @param amount       The amount to deposit each time.
+     * @param periodMillis The delay between deposits, in milliseconds.
+     * @return The running agent.
+     */
+    public Agent startDepositAgent(Account account, BigDecimal amount, long periodMillis) {
+        return start(new Agent(account, Agent.Kind.Deposit, amount, periodMillis));
+    }
+
+    /**
+     * Starts an agent that withdraws the given amount from an account every period.
+     *
+     * @param account      The account to withdraw from.
+     * @param amount       The amount to withdraw each time.
+     * @param periodMillis The delay between withdrawals, in milliseconds.
+     * @return The running agent.
+     */
+    public Agent startWithdrawAgent(Account account, BigDecimal amount, long periodMillis) {
+        return start(new Agent(account, Agent.Kind.Withdraw, amount, periodMillis));
+    }
+
+    /**
+     * Starts the given agent on a new virtual thread.
+     *
+     * @param agent The agent to start.
+     * @return The agent.
+     */
+    public Agent start(Agent agent) {
+        agents.add(agent);
+        executor.execute(() -> {
+            try {
+                agent.run();
+            } finally {
+                agents.remove(agent);
+            }
+        });
+        return agent;
+    }
+
+    /**
+     * Returns the agents that are currently running.
+     *
+     * @return The running agents.
+     */
+    public Collection<Agent> getAgents() {
+        return Collections.unmodifiableSet(agents);
+    }
+
+    /**
+     * Stops every running agent.
+     */
+    public void stopAll() {
+        for (Agent agent : agents) {
+            agent.stop();
+        }
+    }
+
+    /**
+     * Stops every agent and waits for their threads to finish. If the calling thread is
+     * interrupted while waiting, it stops waiting and keeps its interrupt status.
+     */
+    @Override
+    public void close() {
+        stopAll();
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
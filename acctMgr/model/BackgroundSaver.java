@@ -0,0 +1,121 @@
+package acctMgr.model;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves an account list to a file on a dedicated background thread, so large saves never
+ * run on the Swing event thread. Each save uses the crash-safe
+ * {@link AccountList#saveAccounts(String)}.
+ * <p>
+ * Requests are coalesced: while a save is running, any number of further requests share a
+ * single follow-up save, which starts when the running one finishes and therefore sees
+ * every change made before it was requested.
+ */
+public class BackgroundSaver implements AutoCloseable {
+    private final AccountList accountList;
+    private final String fileName;
+    private final ExecutorService executor;
+    private CompletableFuture<Void> inFlight;
+    private CompletableFuture<Void> queued;
+    private boolean closed;
+
+    /**
+     * Constructs a BackgroundSaver for the given account list and file.
+     *
+     * @param accountList The account list to save.
+     * @param fileName    The name of the file to save accounts to.
+     */
+    public BackgroundSaver(AccountList accountList, String fileName) {
+        this.accountList = accountList;
+        this.fileName = fileName;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "account-saver");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Requests a save. Returns immediately with a future that completes when a save
+     * covering this request has been written, or completes exceptionally if it failed.
+     *
+     * @return The future of the save that will cover this request.
+     */
+    public synchronized CompletableFuture<Void> requestSave() {
+        if (closed) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Saver is closed"));
+        }
+        if (queued != null) {
+            return queued;
+        }
+        CompletableFuture<Void> save = new CompletableFuture<>();
+        queued = save;
+        if (inFlight == null) {
+            startQueued();
+        }
+        return save;
+    }
+
+    /**
+     * Moves the queued request into flight and runs it on the saver thread.
+     */
+    private void startQueued() {
+        CompletableFuture<Void> save = queued;
+        queued = null;
+        inFlight = save;
+        executor.execute(() -> {
+            try {
+                accountList.saveAccounts(fileName);
+                save.complete(null);
+            } catch (IOException | RuntimeException e) {
+                save.completeExceptionally(e);
+            } finally {
+                finished();
+            }
+        });
+    }
+
+    private synchronized void finished() {
+        inFlight = null;
+        if (queued != null && !closed) {
+            startQueued();
+        }
+    }
+
+    /**
+     * Stops the saver. A save already in progress is allowed to finish and is waited for;
+     * a queued save that has not started is cancelled rather than started. If the calling
+     * thread is interrupted while waiting, it stops waiting and keeps its interrupt status.
+     */
+    @Override
+    public void close() {
+        CompletableFuture<Void> running;
+        synchronized (this) {
+            closed = true;
+            if (queued != null) {
+                queued.completeExceptionally(new CancellationException("Saver closed before the save started"));
+                queued = null;
+            }
+            running = inFlight;
+        }
+        executor.shutdown();
+        try {
+            if (running != null) {
+                try {
+                    running.get();
+                } catch (ExecutionException | CancellationException e) {
+                    // The caller of requestSave() sees the failure through its future
+                }
+            }
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
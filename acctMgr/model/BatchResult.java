@@ -0,0 +1,135 @@
+package acctMgr.model;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reports the outcome of {@link AccountList#applyBatch(java.util.Collection)}: how many
+ * postings were applied and which ones failed, without throwing for individual failures.
+ */
+public class BatchResult {
+    /**
+     * Enumeration of reasons a posting can fail.
+     */
+    public enum FailureReason {
+        Overdraw, UnknownAccount
+    }
+
+    /**
+     * Describes a single posting that could not be applied.
+     */
+    public static class Failure {
+        private final int position;
+        private final Transaction transaction;
+        private final FailureReason reason;
+        private final long shortfallCents;
+
+        /**
+         * Constructs a Failure for the posting at the given position in the batch.
+         *
+         * @param position       The zero-based position of the posting in the batch.
+         * @param transaction    The posting that failed.
+         * @param reason         The reason the posting failed.
+         * @param shortfallCents The overdraft amount in cents, or zero if not an overdraw.
+         */
+        public Failure(int position, Transaction transaction, FailureReason reason, long shortfallCents) {
+            this.position = position;
+            this.transaction = transaction;
+            this.reason = reason;
+            this.shortfallCents = shortfallCents;
+        }
+
+        /**
+         * Returns the zero-based position of the posting in the batch.
+         *
+         * @return The position.
+         */
+        public int getPosition() {
+            return position;
+        }
+
+        /**
+         * Returns the posting that failed.
+         *
+         * @return The posting.
+         */
+        public Transaction getTransaction() {
+            return transaction;
+        }
+
+        /**
+         * Returns the reason the posting failed.
+         *
+         * @return The failure reason.
+         */
+        public FailureReason getReason() {
+            return reason;
+        }
+
+        /**
+         * Returns the amount by which the account would have been overdrafted.
+         *
+         * @return The overdraft amount, zero if the failure is not an overdraw.
+         */
+        public BigDecimal getShortfall() {
+            return BigDecimal.valueOf(shortfallCents, Account.SCALE);
+        }
+
+        /**
+         * Returns the amount by which the account would have been overdrafted, in cents.
+         *
+         * @return The overdraft amount in cents, zero if the failure is not an overdraw.
+         */
+        public long getShortfallCents() {
+            return shortfallCents;
+        }
+
+        @Override
+        public String toString() {
+            return "#" + position + " " + transaction + ": " + reason
+                    + (reason == FailureReason.Overdraw ? " by " + getShortfall() : "");
+        }
+    }
+
+    private final int appliedCount;
+    private final List<Failure> failures;
+
+    /**
+     * Constructs a BatchResult.
+     *
+     * @param appliedCount The number of postings that were applied.
+     * @param failures     The postings that failed, in batch order.
+     */
+    public BatchResult(int appliedCount, List<Failure> failures) {
+        this.appliedCount = appliedCount;
+        this.failures = Collections.unmodifiableList(failures);
+    }
+
+    /**
+     * Returns the number of postings that were applied.
+     *
+     * @return The applied count.
+     */
+    public int getAppliedCount() {
+        return appliedCount;
+    }
+
+    /**
+     * Returns the postings that failed, in batch order.
+     *
+     * @return The failures.
+     */
+    public List<Failure> getFailures() {
+        return failures;
+    }
+
+    /**
+     * Returns whether every posting in the batch was applied.
+     *
+     * @return {@code true} if there were no failures.
+     */
+    public boolean isFullyApplied() {
+        return failures.isEmpty();
+    }
+}
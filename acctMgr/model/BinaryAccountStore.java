@@ -0,0 +1,296 @@
+package acctMgr.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Versioned binary account file, read through memory-mapped buffers. It is an alternative
+ * to the CSV format of {@link AccountList#loadAccounts(String)} that needs no parsing:
+ * <pre>
+ *   header  (32 bytes)  magic, version, record size, count, name heap offset and length
+ *   records (32 bytes each, sorted by ID)
+ *           16-byte ID key (UTF-8, zero padded), long balance in cents,
+ *           int offset and int length of the name in the name heap
+ *   name heap           UTF-8 account holder names
+ * </pre>
+ * Fields are read straight from the mapping, so balances can be looked up by index or by
+ * binary search on the ID without creating any objects.
+ */
+public class BinaryAccountStore implements Closeable {
+    /**
+     * Maximum length of an account ID in bytes when encoded as UTF-8.
+     */
+    public static final int ID_BYTES = 16;
+
+    private static final int MAGIC = 0x4143424E; // "ACBN"
+    private static final short VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int RECORD_BYTES = 32;
+    private static final int BALANCE_OFFSET = ID_BYTES;
+    private static final int NAME_OFFSET = ID_BYTES + 8;
+    private static final int NAME_LENGTH = ID_BYTES + 12;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer records;
+    private final MappedByteBuffer names;
+    private final int count;
+
+    private BinaryAccountStore(FileChannel channel, MappedByteBuffer records, MappedByteBuffer names, int count) {
+        this.channel = channel;
+        this.records = records;
+        this.names = names;
+        this.count = count;
+    }
+
+    /**
+     * Opens a binary account file for reading.
+     *
+     * @param path The file to open.
+     * @return The mapped store.
+     * @throws IOException If the file cannot be read or is not a supported binary account file.
+     */
+    public static BinaryAccountStore open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Keep reading until the header is complete or the file ends
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException("Not a binary account file: " + path);
+            }
+            short version = header.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported binary account file version " + version + ": " + path);
+            }
+            if (header.getShort() != RECORD_BYTES) {
+                throw new IOException("Unexpected record size in " + path);
+            }
+            int count = header.getInt();
+            long heapOffset = header.getLong();
+            long heapLength = header.getLong();
+            if (heapOffset != HEADER_BYTES + (long) count * RECORD_BYTES || heapOffset + heapLength > channel.size()) {
+                throw new IOException("Truncated binary account file: " + path);
+            }
+            MappedByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, (long) count * RECORD_BYTES);
+            MappedByteBuffer names = channel.map(FileChannel.MapMode.READ_ONLY, heapOffset, heapLength);
+            return new BinaryAccountStore(channel, records, names, count);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes accounts to a binary account file, replacing its contents. The file is written
+     * under a temporary name and moved into place once it is on disk, so a failed write
+     * leaves the previous file intact.
+     *
+     * @param path     The file to write.
+     * @param accounts The accounts to write.
+     * @throws IOException              If the file cannot be written.
+     * @throws IllegalArgumentException If an account ID is longer than {@link #ID_BYTES} bytes.
+     */
+    public static void write(Path path, Collection<Account> accounts) throws IOException {
+        // Sort by the encoded key so lookups can binary search the raw bytes
+        List<byte[]> ids = new ArrayList<>(accounts.size());
+        List<byte[]> holderNames = new ArrayList<>(accounts.size());
+        List<Account> ordered = new ArrayList<>(accounts);
+        Integer[] order = new Integer[ordered.size()];
+        long heapLength = 0;
+        for (int i = 0; i < ordered.size(); i++) {
+            byte[] id = ordered.get(i).getId().getBytes(StandardCharsets.UTF_8);
+            if (id.length > ID_BYTES) {
+                throw new IllegalArgumentException("Account ID longer than " + ID_BYTES + " bytes: " + ordered.get(i).getId());
+            }
+            ids.add(id);
+            order[i] = i;
+            holderNames.add(ordered.get(i).getName().getBytes(StandardCharsets.UTF_8));
+            heapLength += holderNames.get(i).length;
+        }
+        Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(ids.get(a), ids.get(b)));
+
+        long heapOffset = HEADER_BYTES + (long) ordered.size() * RECORD_BYTES;
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer table = out.map(FileChannel.MapMode.READ_WRITE, 0, heapOffset);
+            MappedByteBuffer heap = out.map(FileChannel.MapMode.READ_WRITE, heapOffset, heapLength);
+            table.putInt(MAGIC);
+            table.putShort(VERSION);
+            table.putShort((short) RECORD_BYTES);
+            table.putInt(ordered.size());
+            table.putLong(heapOffset);
+            table.putLong(heapLength);
+            table.position(HEADER_BYTES);
+            byte[] padding = new byte[ID_BYTES];
+            for (Integer i : order) {
+                byte[] id = ids.get(i);
+                byte[] name = holderNames.get(i);
+                table.put(id);
+                table.put(padding, 0, ID_BYTES - id.length);
+                table.putLong(ordered.get(i).getBalanceCents());
+                table.putInt(heap.position());
+                table.putInt(name.length);
+                heap.put(name);
+            }
+            table.force();
+            heap.force();
+            out.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Returns the number of accounts in the file.
+     *
+     * @return The number of accounts.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns the balance of the account at the given position, in cents.
+     *
+     * @param index The position of the account, in ID order.
+     * @return The balance in cents.
+     */
+    public long getBalanceCents(int index) {
+        return records.getLong(index * RECORD_BYTES + BALANCE_OFFSET);
+    }
+
+    /**
+     * Returns the ID of the account at the given position.
+     *
+     * @param index The position of the account, in ID order.
+     * @return The account ID.
+     */
+    public String getId(int index) {
+        int base = index * RECORD_BYTES;
+        int length = 0;
+        while (length < ID_BYTES && records.get(base + length) != 0) {
+            length++;
+        }
+        byte[] id = new byte[length];
+        records.get(base, id);
+        return new String(id, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the account holder's name of the account at the given position.
+     *
+     * @param index The position of the account, in ID order.
+     * @return The account holder's name.
+     */
+    public String getName(int index) {
+        int base = index * RECORD_BYTES;
+        byte[] name = new byte[records.getInt(base + NAME_LENGTH)];
+        names.get(records.getInt(base + NAME_OFFSET), name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Finds the position of an account by binary search on the ID key.
+     *
+     * @param id The account ID.
+     * @return The position of the account, or -1 if it is not in the file.
+     */
+    public int indexOf(String id) {
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        if (key.length > ID_BYTES) {
+            return -1;
+        }
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareKey(mid, key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private int compareKey(int index, byte[] key) {
+        int base = index * RECORD_BYTES;
+        for (int i = 0; i < ID_BYTES; i++) {
+            int stored = records.get(base + i) & 0xFF;
+            int wanted = i < key.length ? key[i] & 0xFF : 0;
+            if (stored != wanted) {
+                return stored - wanted;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Creates an account for every record and installs them in the account list,
+     * replacing its current contents.
+     *
+     * @param accountList The account list to fill.
+     */
+    public void loadInto(AccountList accountList) {
+        List<Account> accounts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            accounts.add(new Account(getName(i), getId(i), getBalanceCents(i)));
+        }
+        accountList.replaceAccounts(accounts);
+    }
+
+    /**
+     * Converts a CSV account file to the binary format.
+     *
+     * @param csvFile    The CSV file to read.
+     * @param binaryFile The binary file to write.
+     * @throws IOException If either file cannot be accessed.
+     */
+    public static void convertCsvToBinary(String csvFile, Path binaryFile) throws IOException {
+        AccountList accountList = new AccountList();
+        accountList.loadAccounts(csvFile);
+        write(binaryFile, accountList.accounts());
+    }
+
+    /**
+     * Converts a binary account file to the CSV format.
+     *
+     * @param binaryFile The binary file to read.
+     * @param csvFile    The CSV file to write.
+     * @throws IOException If either file cannot be accessed.
+     */
+    public static void convertBinaryToCsv(Path binaryFile, String csvFile) throws IOException {
+        AccountList accountList = new AccountList();
+        try (BinaryAccountStore store = open(binaryFile)) {
+            store.loadInto(accountList);
+        }
+        accountList.saveAccounts(csvFile);
+    }
+
+    /**
+     * Closes the underlying file. The mapping stays valid until it is garbage collected.
+     *
+     * @throws IOException If the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,113 @@
+package acctMgr.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded, lock-free, multi-producer queue backed by a power-of-two ring of slots, after
+ * Dmitry Vyukov's bounded MPMC queue. Each slot carries a sequence number that says whether
+ * it is free for the producer claiming that position or full for the consumer reading it,
+ * so producers and consumers only contend on their own position counter. Neither
+ * {@link #offer} nor {@link #poll} allocates.
+ *
+ * @param <E> The element type.
+ */
+final class BoundedRingBuffer<E> {
+    private final int mask;
+    private final Object[] elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * Constructs an empty ring buffer.
+     *
+     * @param capacity The minimum capacity; it is rounded up to a power of two.
+     */
+    BoundedRingBuffer(int capacity) {
+        if (capacity < 2 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Capacity out of range: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        mask = size - 1;
+        elements = new Object[size];
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element if there is room.
+     *
+     * @param element The element to add.
+     * @return {@code true} if the element was added, {@code false} if the buffer is full.
+     */
+    boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements[index] = element;
+                    // Publishes the element to the consumer that waits for this sequence
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (diff < 0) {
+                // The slot still holds the element from one lap ago
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest element.
+     *
+     * @return The element, or {@code null} if the buffer is empty.
+     */
+    @SuppressWarnings("unchecked")
+    E poll() {
+        long position = head.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - (position + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    E element = (E) elements[index];
+                    elements[index] = null;
+                    // Frees the slot for the producer one lap ahead
+                    sequences.set(index, position + mask + 1);
+                    return element;
+                }
+                position = head.get();
+            } else if (diff < 0) {
+                return null;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    /**
+     * Returns whether the buffer looked empty at the time of the call.
+     *
+     * @return {@code true} if no element was waiting.
+     */
+    boolean isEmpty() {
+        return head.get() >= tail.get();
+    }
+
+    /**
+     * Returns the number of slots.
+     *
+     * @return The capacity.
+     */
+    int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,390 @@
+package acctMgr.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Loads CSV account files ({@code name,id,balance} per line) in parallel. The file is cut
+ * into byte ranges that end on line boundaries, each range is memory-mapped and parsed on a
+ * fork-join pool with a hand-written field scanner, and the partial results are merged in
+ * file order. Plain amounts with up to two decimal places are converted straight to cents
+ * without going through {@link BigDecimal}. Malformed lines are collected in a
+ * {@link LoadReport} rather than printed.
+ * <p>
+ * Lines starting with {@code #} are not accounts. A file written by a full save starts with
+ * a {@code #generation=} line carrying a random stamp; a delta file starts with the stamp of
+ * the full save it extends.
+ */
+public class CsvAccountLoader {
+    private static final long MIN_CHUNK_BYTES = 1 << 20;
+    private static final long MAX_CHUNK_BYTES = 64L << 20;
+
+    /**
+     * Prefix of the header line that stamps a base or delta file with its save generation.
+     */
+    static final String GENERATION_PREFIX = "#generation=";
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a CsvAccountLoader that runs on the common fork-join pool.
+     */
+    public CsvAccountLoader() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a CsvAccountLoader that runs on the given fork-join pool.
+     *
+     * @param pool The pool to parse chunks on.
+     */
+    public CsvAccountLoader(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * The accounts and errors parsed from one or more consecutive chunks.
+     */
+    static class Chunk {
+        final List<Account> accounts = new ArrayList<>();
+        final List<LoadReport.LoadError> errors = new ArrayList<>();
+
+        Chunk merge(Chunk later) {
+            accounts.addAll(later.accounts);
+            errors.addAll(later.errors);
+            return this;
+        }
+    }
+
+    /**
+     * Parses every line of a CSV account file.
+     *
+     * @param path The file to parse.
+     * @return The accounts and errors, in file order.
+     * @throws IOException If the file cannot be read.
+     */
+    Chunk parse(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] bounds = split(channel, size);
+            if (bounds.length == 2) {
+                return parseRange(channel, bounds[0], bounds[1]);
+            }
+            return pool.invoke(new ParseTask(channel, bounds, 0, bounds.length - 1));
+        }
+    }
+
+    /**
+     * Loads a CSV account file into an account list, replacing its contents. If a delta
+     * file written by {@link AccountList#saveAccountsIncremental(String)} exists next to it,
+     * its records are applied on top, later records replacing earlier ones. The delta is
+     * only applied when it carries the same generation stamp as the file; any other delta
+     * was left behind by an earlier full save and is ignored. File times are not used,
+     * since they can tie or be lost when files are copied.
+     *
+     * @param path        The file to load.
+     * @param accountList The account list to fill.
+     * @return The number of accounts in the book after loading and the lines that were rejected.
+     * @throws IOException If the file cannot be read.
+     */
+    public LoadReport load(Path path, AccountList accountList) throws IOException {
+        Chunk result = parse(path);
+        if (deltaMatches(path)) {
+            result.merge(parse(deltaOf(path)));
+        }
+        accountList.replaceAccounts(result.accounts);
+        return new LoadReport(accountList.size(), result.errors);
+    }
+
+    /**
+     * Returns the delta file that extends a base file.
+     *
+     * @param path The base file.
+     * @return The delta file path, which may not exist.
+     */
+    static Path deltaOf(Path path) {
+        return path.resolveSibling(path.getFileName() + ".delta");
+    }
+
+    /**
+     * Returns whether a base file has a delta file that extends this very save, that is,
+     * whether both carry the same generation stamp.
+     *
+     * @param path The base file.
+     * @return {@code true} if the delta exists and should be merged.
+     * @throws IOException If either file cannot be read.
+     */
+    static boolean deltaMatches(Path path) throws IOException {
+        Path delta = deltaOf(path);
+        if (!Files.exists(delta)) {
+            return false;
+        }
+        OptionalLong generation = readGeneration(path);
+        return generation.isPresent() && generation.equals(readGeneration(delta));
+    }
+
+    /**
+     * Reads the generation stamp from the first line of a file.
+     *
+     * @param path The file.
+     * @return The stamp, or empty if the file does not start with one.
+     * @throws IOException If the file cannot be read.
+     */
+    static OptionalLong readGeneration(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(64);
+            while (head.hasRemaining() && channel.read(head) > 0) {
+                // Keep reading until the buffer is full or the file ends
+            }
+            String text = new String(head.array(), 0, head.position(), StandardCharsets.UTF_8);
+            int newline = text.indexOf('\n');
+            if (!text.startsWith(GENERATION_PREFIX) || newline < 0) {
+                return OptionalLong.empty();
+            }
+            try {
+                return OptionalLong.of(Long.parseLong(text.substring(GENERATION_PREFIX.length(), newline).trim()));
+            } catch (NumberFormatException e) {
+                return OptionalLong.empty();
+            }
+        }
+    }
+
+    /**
+     * Picks chunk boundaries, moving each one forward to just past the next newline.
+     *
+     * @return Ascending offsets; chunk i covers [bounds[i], bounds[i + 1]).
+     */
+    private long[] split(FileChannel channel, long size) throws IOException {
+        int parallelism = Math.max(1, pool.getParallelism());
+        long chunk = Math.min(MAX_CHUNK_BYTES, Math.max(MIN_CHUNK_BYTES, size / (parallelism * 4L)));
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        long next = chunk;
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        while (next < size) {
+            long boundary = -1;
+            long position = next;
+            while (boundary < 0 && position < size) {
+                probe.clear();
+                int read = channel.read(probe, position);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        boundary = position + i + 1;
+                        break;
+                    }
+                }
+                position += read;
+            }
+            if (boundary < 0 || boundary >= size) {
+                break;
+            }
+            bounds.add(boundary);
+            next = boundary + chunk;
+        }
+        bounds.add(size);
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Splits a run of chunks in half until a single chunk remains, then parses it.
+     */
+    private class ParseTask extends RecursiveTask<Chunk> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient FileChannel channel;
+        private final long[] bounds;
+        private final int from;
+        private final int to;
+
+        ParseTask(FileChannel channel, long[] bounds, int from, int to) {
+            this.channel = channel;
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Chunk compute() {
+            if (to - from == 1) {
+                try {
+                    return parseRange(channel, bounds[from], bounds[to]);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            int mid = (from + to) >>> 1;
+            ParseTask left = new ParseTask(channel, bounds, from, mid);
+            ParseTask right = new ParseTask(channel, bounds, mid, to);
+            right.fork();
+            Chunk result = left.compute();
+            return result.merge(right.join());
+        }
+    }
+
+    /**
+     * Parses the lines in one byte range of the file.
+     */
+    private Chunk parseRange(FileChannel channel, long start, long end) throws IOException {
+        Chunk chunk = new Chunk();
+        if (end <= start) {
+            return chunk;
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        byte[] line = new byte[256];
+        int limit = buffer.limit();
+        int position = 0;
+        while (position < limit) {
+            int lineStart = position;
+            int length = 0;
+            while (position < limit) {
+                byte b = buffer.get(position++);
+                if (b == '\n') {
+                    break;
+                }
+                if (length == line.length) {
+                    line = Arrays.copyOf(line, length * 2);
+                }
+                line[length++] = b;
+            }
+            parseLine(line, length, start + lineStart, chunk);
+        }
+        return chunk;
+    }
+
+    /**
+     * Parses one line into an account, or records why it is invalid.
+     */
+    static void parseLine(byte[] line, int length, long offset, Chunk chunk) {
+        int end = length;
+        if (end > 0 && line[end - 1] == '\r') {
+            end--;
+        }
+        if (end > 0 && line[0] == '#') {
+            return;
+        }
+        int firstComma = indexOf(line, 0, end);
+        int secondComma = firstComma < 0 ? -1 : indexOf(line, firstComma + 1, end);
+        if (secondComma < 0) {
+            if (!isBlank(line, 0, end)) {
+                chunk.errors.add(new LoadReport.LoadError(offset, text(line, 0, end), "Invalid line format (missing parts)"));
+            }
+            return;
+        }
+        int thirdComma = indexOf(line, secondComma + 1, end);
+        int amountEnd = thirdComma < 0 ? end : thirdComma;
+
+        String name = trimmed(line, 0, firstComma);
+        String id = trimmed(line, firstComma + 1, secondComma);
+        long cents = parseCents(line, secondComma + 1, amountEnd);
+        if (cents == Long.MIN_VALUE) {
+            // Not a plain two-decimal amount; let BigDecimal decide
+            try {
+                cents = Account.toCents(new BigDecimal(trimmed(line, secondComma + 1, amountEnd)));
+            } catch (NumberFormatException | ArithmeticException e) {
+                chunk.errors.add(new LoadReport.LoadError(offset, text(line, 0, end), "Invalid balance format"));
+                return;
+            }
+        }
+        chunk.accounts.add(new Account(name, id, cents));
+    }
+
+    /**
+     * Parses an amount of the form [-]digits[.d[d]] into cents.
+     *
+     * @return The amount in cents, or {@link Long#MIN_VALUE} if the text is not of that form.
+     */
+    static long parseCents(byte[] line, int from, int to) {
+        while (from < to && (line[from] & 0xFF) <= ' ') {
+            from++;
+        }
+        while (to > from && (line[to - 1] & 0xFF) <= ' ') {
+            to--;
+        }
+        boolean negative = from < to && line[from] == '-';
+        if (negative) {
+            from++;
+        }
+        long units = 0;
+        int digits = 0;
+        int i = from;
+        for (; i < to && line[i] != '.'; i++) {
+            int d = line[i] - '0';
+            if (d < 0 || d > 9 || ++digits > 16) {
+                return Long.MIN_VALUE;
+            }
+            units = units * 10 + d;
+        }
+        long fraction = 0;
+        int fractionDigits = 0;
+        if (i < to) {
+            for (i++; i < to; i++) {
+                int d = line[i] - '0';
+                if (d < 0 || d > 9 || ++fractionDigits > 2) {
+                    return Long.MIN_VALUE;
+                }
+                fraction = fraction * 10 + d;
+            }
+        }
+        if (digits == 0 && fractionDigits == 0) {
+            return Long.MIN_VALUE;
+        }
+        if (fractionDigits == 1) {
+            fraction *= 10;
+        }
+        long cents = units * 100 + fraction;
+        return negative ? -cents : cents;
+    }
+
+    private static int indexOf(byte[] line, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (line[i] == ',') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isBlank(byte[] line, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if ((line[i] & 0xFF) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String trimmed(byte[] line, int from, int to) {
+        while (from < to && (line[from] & 0xFF) <= ' ') {
+            from++;
+        }
+        while (to > from && (line[to - 1] & 0xFF) <= ' ') {
+            to--;
+        }
+        return text(line, from, to);
+    }
+
+    private static String text(byte[] line, int from, int to) {
+        return new String(line, from, to - from, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,217 @@
+package acctMgr.model;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Converts amounts between currencies using a table of rates that can be swapped at any
+ * time. A rate table is immutable and holds the full matrix of cross rates, computed once
+ * when the table is built, so a conversion never derives a rate. Replacing the table is
+ * atomic: each conversion, and each bulk conversion as a whole, uses exactly one table.
+ * <p>
+ * Amounts are held with two decimal places, as account balances are, and results are
+ * rounded half up to two places.
+ */
+public final class CurrencyEngine {
+    /**
+     * Decimal places of the fixed-point rates used by the cents fast path.
+     */
+    private static final int RATE_SCALE = 9;
+    private static final long RATE_ONE = 1_000_000_000L;
+
+    private static final CurrencyEngine DEFAULT = new CurrencyEngine(RateTable.fromUsd(Map.of(
+            CurrencyUnit.USD, BigDecimal.ONE,
+            CurrencyUnit.EUR, new BigDecimal("0.79"),
+            CurrencyUnit.JPY, new BigDecimal("94.1"))));
+
+    /**
+     * An immutable matrix of conversion rates between every pair of currencies.
+     */
+    public static final class RateTable {
+        private final BigDecimal[][] rates;
+        private final long[][] scaledRates;
+        private final boolean[][] exactRates;
+
+        private RateTable(BigDecimal[][] rates) {
+            this.rates = rates;
+            int n = rates.length;
+            scaledRates = new long[n][n];
+            exactRates = new boolean[n][n];
+            for (int from = 0; from < n; from++) {
+                for (int to = 0; to < n; to++) {
+                    BigDecimal unrounded = rates[from][to].movePointRight(RATE_SCALE);
+                    BigDecimal scaled = unrounded.setScale(0, RoundingMode.HALF_UP);
+                    // Rates too large for the fixed-point form use the BigDecimal path only
+                    scaledRates[from][to] = scaled.unscaledValue().bitLength() < 63 ? scaled.longValue() : -1;
+                    exactRates[from][to] = scaled.compareTo(unrounded) == 0;
+                }
+            }
+        }
+
+        /**
+         * Builds a table from the value of one US dollar in every currency.
+         *
+         * @param usdRates The amount of each currency that one US dollar buys.
+         * @return The rate table.
+         * @throws IllegalArgumentException If a currency is missing or a rate is not positive.
+         */
+        public static RateTable fromUsd(Map<CurrencyUnit, BigDecimal> usdRates) {
+            CurrencyUnit[] units = CurrencyUnit.values();
+            Map<CurrencyUnit, BigDecimal> quotes = new EnumMap<>(CurrencyUnit.class);
+            for (CurrencyUnit unit : units) {
+                BigDecimal rate = usdRates.get(unit);
+                if (rate == null || rate.signum() <= 0) {
+                    throw new IllegalArgumentException("Missing or invalid rate for " + unit);
+                }
+                quotes.put(unit, rate);
+            }
+            BigDecimal[][] rates = new BigDecimal[units.length][units.length];
+            for (CurrencyUnit from : units) {
+                for (CurrencyUnit to : units) {
+                    rates[from.ordinal()][to.ordinal()] = from == to ? BigDecimal.ONE
+                            : quotes.get(to).divide(quotes.get(from), MathContext.DECIMAL128);
+                }
+            }
+            return new RateTable(rates);
+        }
+
+        /**
+         * Returns the amount of one currency that a unit of another buys.
+         *
+         * @param from The currency converted from.
+         * @param to The currency converted to.
+         * @return The conversion rate.
+         */
+        public BigDecimal getRate(CurrencyUnit from, CurrencyUnit to) {
+            return rates[from.ordinal()][to.ordinal()];
+        }
+
+        /**
+         * Converts an amount.
+         *
+         * @param amount The amount to convert.
+         * @param from The currency of the amount.
+         * @param to The currency to convert to.
+         * @return The converted amount with two decimal places.
+         */
+        BigDecimal convert(BigDecimal amount, CurrencyUnit from, CurrencyUnit to) {
+            return amount.multiply(getRate(from, to)).setScale(Account.SCALE, RoundingMode.HALF_UP);
+        }
+
+        /**
+         * Converts an amount held in hundredths. Ordinary amounts take a fixed-point path
+         * without allocation, using the rate rounded to nine decimal places, and give the
+         * same result as {@link #convert}. Amounts large enough to overflow fall back to
+         * BigDecimal, as do amounts whose product with an inexact rate lies too close to a
+         * half hundredth for the rounded rate to decide the rounding.
+         *
+         * @param cents The amount to convert, in hundredths.
+         * @param from The currency of the amount.
+         * @param to The currency to convert to.
+         * @return The converted amount, in hundredths.
+         */
+        long convertCents(long cents, CurrencyUnit from, CurrencyUnit to) {
+            if (from == to) {
+                return cents;
+            }
+            long rate = scaledRates[from.ordinal()][to.ordinal()];
+            long high = Math.multiplyHigh(cents, rate);
+            long low = cents * rate;
+            long limit = Long.MAX_VALUE - RATE_ONE;
+            long half = RATE_ONE / 2;
+            if (rate >= 0 && high == (low >> 63) && low > -limit && low < limit) {
+                // Rounding the rate moves the product by at most half a unit per hundredth
+                // converted, which can only change the result next to a half hundredth
+                long remainder = Math.abs(low) % RATE_ONE;
+                if (exactRates[from.ordinal()][to.ordinal()] || Math.abs(remainder - half) > Math.abs(cents / 2) + 1) {
+                    // Round half up, away from zero for negative amounts
+                    return low >= 0 ? (low + half) / RATE_ONE : -((-low + half) / RATE_ONE);
+                }
+            }
+            return convert(BigDecimal.valueOf(cents, Account.SCALE), from, to).unscaledValue().longValueExact();
+        }
+    }
+
+    private final AtomicReference<RateTable> rates;
+
+    /**
+     * Constructs a CurrencyEngine with the given rates.
+     *
+     * @param rates The initial rate table.
+     */
+    public CurrencyEngine(RateTable rates) {
+        this.rates = new AtomicReference<>(rates);
+    }
+
+    /**
+     * Returns the engine shared by the application.
+     *
+     * @return The shared engine.
+     */
+    public static CurrencyEngine getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns the rate table in use.
+     *
+     * @return The current rates.
+     */
+    public RateTable getRates() {
+        return rates.get();
+    }
+
+    /**
+     * Replaces the rate table. Conversions already running finish with the old table.
+     *
+     * @param newRates The new rates.
+     */
+    public void setRates(RateTable newRates) {
+        rates.set(newRates);
+    }
+
+    /**
+     * Converts an amount between currencies.
+     *
+     * @param amount The amount to convert.
+     * @param from The currency of the amount.
+     * @param to The currency to convert to.
+     * @return The converted amount, rounded half up to two decimal places.
+     */
+    public BigDecimal convert(BigDecimal amount, CurrencyUnit from, CurrencyUnit to) {
+        return rates.get().convert(amount, from, to);
+    }
+
+    /**
+     * Converts an amount held in hundredths between currencies.
+     *
+     * @param cents The amount to convert, in hundredths.
+     * @param from The currency of the amount.
+     * @param to The currency to convert to.
+     * @return The converted amount in hundredths, rounded half up.
+     */
+    public long convertCents(long cents, CurrencyUnit from, CurrencyUnit to) {
+        return rates.get().convertCents(cents, from, to);
+    }
+
+    /**
+     * Converts the US dollar balances of many accounts with a single rate table.
+     *
+     * @param accounts The accounts to convert.
+     * @param to The currency to convert to.
+     * @return The converted balances in hundredths, in the order of {@code accounts}.
+     */
+    public long[] convertBalances(List<Account> accounts, CurrencyUnit to) {
+        RateTable table = rates.get();
+        long[] converted = new long[accounts.size()];
+        for (int i = 0; i < converted.length; i++) {
+            converted[i] = table.convertCents(accounts.get(i).getBalanceCents(), CurrencyUnit.USD, to);
+        }
+        return converted;
+    }
+}
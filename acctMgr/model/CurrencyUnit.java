@@ -0,0 +1,23 @@
+package acctMgr.model;
+
+/**
+ * The currencies that balances can be displayed and converted in.
+ */
+public enum CurrencyUnit {
+    USD("$"), EUR("€"), JPY("¥");
+
+    private final String symbol;
+
+    CurrencyUnit(String symbol) {
+        this.symbol = symbol;
+    }
+
+    /**
+     * Returns the symbol shown in front of amounts in this currency.
+     *
+     * @return The currency symbol.
+     */
+    public String getSymbol() {
+        return symbol;
+    }
+}
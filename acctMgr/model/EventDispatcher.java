@@ -0,0 +1,347 @@
+package acctMgr.model;
+
+import acctMgr.metrics.AccountMetrics;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers model events to listeners on a dedicated event thread instead of the thread
+ * that made the change, so writers never wait for listeners. Listeners are kept in a
+ * copy-on-write registry and may be added or removed from any thread.
+ * <p>
+ * {@link ModelEvent.EventKind#BalanceUpdate} events are coalesced: events for the same
+ * account that arrive within a short window are merged, and listeners see only the latest
+ * one. Other events are delivered individually. Events are delivered in the order of the
+ * first event for each merged account, and the deltas of merged events are added up.
+ * <p>
+ * Besides listeners that receive every event, listeners may subscribe to a single account
+ * ID or to a range of IDs. Such listeners receive only the events about those accounts,
+ * plus events that are not about any one account. Delivering an event costs time in
+ * proportion to the listeners interested in it, not to all listeners. Range subscriptions
+ * are checked one by one, so they suit a modest number of ranges.
+ * <p>
+ * Each dispatcher has its own event thread unless it is given an executor, so a slow
+ * listener of one model never holds up the events of another. The thread is started on
+ * the first event and stops again after a second without events.
+ */
+public class EventDispatcher {
+    /**
+     * Default coalescing window, in milliseconds.
+     */
+    public static final long DEFAULT_WINDOW_MILLIS = 10;
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    /**
+     * A queued event; coalesced events replace the event of their slot in place.
+     */
+    private static class Slot {
+        private ModelEvent event;
+
+        Slot(ModelEvent event) {
+            this.event = event;
+        }
+    }
+
+    /**
+     * A subscription to the IDs from {@code fromId} (inclusive) to {@code toId} (exclusive).
+     */
+    private static class RangeSubscription {
+        private final String fromId;
+        private final String toId;
+        private final ModelListener listener;
+
+        RangeSubscription(String fromId, String toId, ModelListener listener) {
+            this.fromId = fromId;
+            this.toId = toId;
+            this.listener = listener;
+        }
+
+        boolean contains(String id) {
+            return fromId.compareTo(id) <= 0 && id.compareTo(toId) < 0;
+        }
+    }
+
+    private static final ModelListener[] NO_LISTENERS = new ModelListener[0];
+
+    private final ListenerRegistry<ModelListener> listeners = new ListenerRegistry<>();
+    private final ConcurrentHashMap<String, ModelListener[]> byAccount = new ConcurrentHashMap<>();
+    private final List<RangeSubscription> ranges = new CopyOnWriteArrayList<>();
+    private final long windowMillis;
+    private final ScheduledExecutorService executor;
+    private final Object lock = new Object();
+    private List<Slot> queue = new ArrayList<>();
+    private final Map<String, Slot> pendingBalances = new HashMap<>();
+    private boolean scheduled;
+
+    /**
+     * Constructs an EventDispatcher with the default coalescing window.
+     */
+    public EventDispatcher() {
+        this(DEFAULT_WINDOW_MILLIS);
+    }
+
+    /**
+     * Constructs an EventDispatcher.
+     *
+     * @param windowMillis How long balance updates are held for merging, in milliseconds.
+     */
+    public EventDispatcher(long windowMillis) {
+        this(windowMillis, newEventThread());
+    }
+
+    /**
+     * Constructs an EventDispatcher that delivers events on the given executor. The
+     * executor must run its tasks one at a time, or listeners may see events out of order.
+     *
+     * @param windowMillis How long balance updates are held for merging, in milliseconds.
+     * @param executor The executor that delivers events.
+     */
+    public EventDispatcher(long windowMillis, ScheduledExecutorService executor) {
+        this.windowMillis = windowMillis;
+        this.executor = Objects.requireNonNull(executor, "executor");
+    }
+
+    /**
+     * Creates a single daemon event thread that is let go when idle.
+     *
+     * @return The executor.
+     */
+    private static ScheduledExecutorService newEventThread() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "model-events-" + THREAD_COUNT.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        executor.setKeepAliveTime(1, TimeUnit.SECONDS);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Adds a listener.
+     *
+     * @param listener The listener to add.
+     */
+    public void addListener(ModelListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Adds a listener that is held weakly and dropped once it is garbage collected.
+     *
+     * @param listener The listener to add.
+     */
+    public void addWeakListener(ModelListener listener) {
+        listeners.addWeak(listener);
+    }
+
+    /**
+     * Removes a listener.
+     *
+     * @param listener The listener to remove.
+     */
+    public void removeListener(ModelListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Subscribes a listener to the events about one account.
+     *
+     * @param accountId The account ID.
+     * @param listener The listener to add.
+     */
+    public void subscribe(String accountId, ModelListener listener) {
+        byAccount.merge(accountId, new ModelListener[] {listener}, (current, added) -> {
+            ModelListener[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = listener;
+            return grown;
+        });
+    }
+
+    /**
+     * Subscribes a listener to the events about every account whose ID lies in a range.
+     *
+     * @param fromId The lowest ID in the range, inclusive.
+     * @param toId The end of the range, exclusive.
+     * @param listener The listener to add.
+     */
+    public void subscribeRange(String fromId, String toId, ModelListener listener) {
+        ranges.add(new RangeSubscription(fromId, toId, listener));
+    }
+
+    /**
+     * Removes a listener's subscription to one account.
+     *
+     * @param accountId The account ID.
+     * @param listener The listener to remove.
+     */
+    public void unsubscribe(String accountId, ModelListener listener) {
+        byAccount.computeIfPresent(accountId, (id, current) -> {
+            ModelListener[] remaining = Arrays.stream(current).filter(l -> l != listener).toArray(ModelListener[]::new);
+            return remaining.length == 0 ? null : remaining;
+        });
+    }
+
+    /**
+     * Removes every account and range subscription of a listener.
+     *
+     * @param listener The listener to remove.
+     */
+    public void unsubscribe(ModelListener listener) {
+        for (String accountId : byAccount.keySet()) {
+            unsubscribe(accountId, listener);
+        }
+        ranges.removeIf(range -> range.listener == listener);
+    }
+
+    /**
+     * Checks whether any listener would receive events about an account. Callers can skip
+     * building events nobody will see.
+     *
+     * @param accountId The account ID.
+     * @return {@code true} if some listener is interested in the account.
+     */
+    public boolean isObserved(String accountId) {
+        if (!listeners.isEmpty() || byAccount.containsKey(accountId)) {
+            return true;
+        }
+        for (RangeSubscription range : ranges) {
+            if (range.contains(accountId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Queues an event for delivery and returns immediately.
+     *
+     * @param event The event to deliver.
+     */
+    public void dispatch(ModelEvent event) {
+        if (listeners.isEmpty() && byAccount.isEmpty() && ranges.isEmpty()) {
+            return;
+        }
+        boolean coalesce = event.getKind() == ModelEvent.EventKind.BalanceUpdate;
+        synchronized (lock) {
+            if (coalesce) {
+                String key = Objects.toString(event.getAccountId(), "");
+                Slot pending = pendingBalances.get(key);
+                if (pending != null) {
+                    pending.event = merge(pending.event, event);
+                    return;
+                }
+                Slot slot = new Slot(event);
+                pendingBalances.put(key, slot);
+                queue.add(slot);
+            } else {
+                queue.add(new Slot(event));
+            }
+            if (!scheduled) {
+                scheduled = true;
+                executor.schedule(this::drain, coalesce ? windowMillis : 0, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Delivers every queued event on the event thread.
+     */
+    private void drain() {
+        List<Slot> batch;
+        synchronized (lock) {
+            batch = queue;
+            queue = new ArrayList<>();
+            pendingBalances.clear();
+            scheduled = false;
+        }
+        for (Slot slot : batch) {
+            long start = System.nanoTime();
+            ModelEvent event = slot.event;
+            listeners.forEach(listener -> deliver(listener, event));
+            String accountId = event.getAccountId();
+            if (accountId != null) {
+                for (ModelListener listener : byAccount.getOrDefault(accountId, NO_LISTENERS)) {
+                    deliver(listener, event);
+                }
+                for (RangeSubscription range : ranges) {
+                    if (range.contains(accountId)) {
+                        deliver(range.listener, event);
+                    }
+                }
+            } else {
+                // Not about one account, so every subscriber may be affected; each hears it once
+                Set<ModelListener> subscribers = Collections.newSetFromMap(new IdentityHashMap<>());
+                for (ModelListener[] subscribed : byAccount.values()) {
+                    subscribers.addAll(Arrays.asList(subscribed));
+                }
+                for (RangeSubscription range : ranges) {
+                    subscribers.add(range.listener);
+                }
+                for (ModelListener listener : subscribers) {
+                    deliver(listener, event);
+                }
+            }
+            AccountMetrics.get().recordDispatch(start);
+        }
+    }
+
+    /**
+     * Delivers an event to one listener, so that a failing listener does not stop delivery
+     * to the others.
+     *
+     * @param listener The listener.
+     * @param event The event.
+     */
+    private static void deliver(ModelListener listener, ModelEvent event) {
+        try {
+            listener.modelChanged(event);
+        } catch (RuntimeException e) {
+            AccountMetrics.get().recordListenerFailure();
+            System.err.println("Model listener failed: " + e);
+        }
+    }
+
+    /**
+     * Merges two balance updates for the same account: the later balance, the summed delta.
+     *
+     * @param earlier The pending event.
+     * @param later The new event.
+     * @return The merged event.
+     */
+    private static ModelEvent merge(ModelEvent earlier, ModelEvent later) {
+        BigDecimal delta = earlier.getDelta();
+        if (delta == null) {
+            delta = later.getDelta();
+        } else if (later.getDelta() != null) {
+            delta = delta.add(later.getDelta());
+        }
+        return new ModelEvent(later.getKind(), later.getAccountId(), later.getBalance(), delta, later.getAgStatus());
+    }
+
+    /**
+     * Delivers any queued events without waiting for the coalescing window, and returns a
+     * future that completes once they have been delivered.
+     *
+     * @return A future that completes when all events queued so far have been delivered.
+     */
+    public CompletableFuture<Void> flush() {
+        return CompletableFuture.runAsync(this::drain, executor);
+    }
+}
@@ -0,0 +1,182 @@
+package acctMgr.model;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Copy-on-write registry of listeners, held either strongly or weakly.
+ * <p>
+ * A weakly held listener does not keep its owner alive. Once the owner is garbage
+ * collected, its entry is dropped on the next add, remove, or notification. A weak
+ * listener must therefore be strongly reachable from somewhere else, typically the view
+ * that implements it. Lambdas and method references should be registered strongly.
+ * <p>
+ * Notification iterates over an immutable snapshot and is safe from any thread. Adding
+ * and removing are serialized.
+ *
+ * @param <L> The listener type.
+ */
+public class ListenerRegistry<L> {
+    /**
+     * A registered listener.
+     */
+    private interface Entry<L> {
+        L get();
+    }
+
+    /**
+     * An entry that keeps its listener alive.
+     */
+    private static final class StrongEntry<L> implements Entry<L> {
+        private final L listener;
+
+        StrongEntry(L listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public L get() {
+            return listener;
+        }
+    }
+
+    /**
+     * An entry that lets its listener be garbage collected.
+     */
+    private static final class WeakEntry<L> extends WeakReference<L> implements Entry<L> {
+        WeakEntry(L listener, ReferenceQueue<? super L> queue) {
+            super(listener, queue);
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static final Entry[] EMPTY = new Entry[0];
+
+    private final ReferenceQueue<L> collected = new ReferenceQueue<>();
+    @SuppressWarnings("unchecked")
+    private volatile Entry<L>[] entries = EMPTY;
+
+    /**
+     * Adds a listener that is held strongly.
+     *
+     * @param listener The listener to add.
+     */
+    public void add(L listener) {
+        append(new StrongEntry<>(listener));
+    }
+
+    /**
+     * Adds a listener that is held weakly and dropped once it is garbage collected.
+     *
+     * @param listener The listener to add.
+     */
+    public void addWeak(L listener) {
+        append(new WeakEntry<>(listener, collected));
+    }
+
+    /**
+     * Appends an entry, dropping collected ones first.
+     *
+     * @param entry The entry to append.
+     */
+    private synchronized void append(Entry<L> entry) {
+        Entry<L>[] current = live(entries);
+        Entry<L>[] grown = Arrays.copyOf(current, current.length + 1);
+        grown[current.length] = entry;
+        entries = grown;
+    }
+
+    /**
+     * Removes the first registration of a listener, whether strong or weak.
+     *
+     * @param listener The listener to remove.
+     * @return {@code true} if the listener was registered.
+     */
+    public synchronized boolean remove(L listener) {
+        Entry<L>[] current = live(entries);
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].get() == listener) {
+                Entry<L>[] shrunk = Arrays.copyOf(current, current.length - 1);
+                System.arraycopy(current, i + 1, shrunk, i, current.length - i - 1);
+                entries = shrunk;
+                return true;
+            }
+        }
+        entries = current;
+        return false;
+    }
+
+    /**
+     * Calls an action for every live listener, in registration order.
+     *
+     * @param action The action to call.
+     */
+    public void forEach(Consumer<? super L> action) {
+        if (collected.poll() != null) {
+            prune();
+        }
+        for (Entry<L> entry : entries) {
+            L listener = entry.get();
+            if (listener != null) {
+                action.accept(listener);
+            }
+        }
+    }
+
+    /**
+     * Returns whether no listeners are registered. Collected listeners not yet dropped
+     * still count.
+     *
+     * @return {@code true} if the registry is empty.
+     */
+    public boolean isEmpty() {
+        return entries.length == 0;
+    }
+
+    /**
+     * Returns the number of registered listeners after dropping collected ones.
+     *
+     * @return The number of live listeners.
+     */
+    public synchronized int size() {
+        entries = live(entries);
+        return entries.length;
+    }
+
+    /**
+     * Drops the entries of collected listeners.
+     */
+    private synchronized void prune() {
+        entries = live(entries);
+    }
+
+    /**
+     * Returns the entries whose listeners are still alive, draining the reference queue.
+     *
+     * @param current The current entries.
+     * @return The live entries; {@code current} itself if none were collected.
+     */
+    @SuppressWarnings("unchecked")
+    private Entry<L>[] live(Entry<L>[] current) {
+        Reference<? extends L> ref = collected.poll();
+        boolean anyCollected = ref != null;
+        while (ref != null) {
+            ref = collected.poll();
+        }
+        if (!anyCollected) {
+            for (Entry<L> entry : current) {
+                if (entry.get() == null) {
+                    anyCollected = true;
+                    break;
+                }
+            }
+            if (!anyCollected) {
+                return current;
+            }
+        }
+        return Arrays.stream(current).filter(e -> e.get() != null).toArray(Entry[]::new);
+    }
+}
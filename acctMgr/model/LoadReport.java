@@ -0,0 +1,112 @@
+package acctMgr.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reports the outcome of loading an account file: how many accounts were loaded and which
+ * lines were rejected, instead of printing each bad line as it is found.
+ */
+public class LoadReport {
+    /**
+     * Describes a line of the account file that could not be loaded.
+     */
+    public static class LoadError {
+        private final long offset;
+        private final String line;
+        private final String reason;
+
+        /**
+         * Constructs a LoadError.
+         *
+         * @param offset The byte offset of the line in the file.
+         * @param line   The text of the line.
+         * @param reason Why the line was rejected.
+         */
+        public LoadError(long offset, String line, String reason) {
+            this.offset = offset;
+            this.line = line;
+            this.reason = reason;
+        }
+
+        /**
+         * Returns the byte offset of the line in the file.
+         *
+         * @return The byte offset.
+         */
+        public long getOffset() {
+            return offset;
+        }
+
+        /**
+         * Returns the text of the line.
+         *
+         * @return The line.
+         */
+        public String getLine() {
+            return line;
+        }
+
+        /**
+         * Returns why the line was rejected.
+         *
+         * @return The reason.
+         */
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return reason + " at byte " + offset + ": " + line;
+        }
+    }
+
+    private final int accountCount;
+    private final List<LoadError> errors;
+
+    /**
+     * Constructs a LoadReport.
+     *
+     * @param accountCount The number of accounts in the book after loading.
+     * @param errors       The rejected lines, in file order.
+     */
+    public LoadReport(int accountCount, List<LoadError> errors) {
+        this.accountCount = accountCount;
+        this.errors = Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * Returns the number of accounts in the book after loading. Records that replace an
+     * earlier account with the same ID, such as those of a delta file, are not counted
+     * again, so this can be less than the number of records read.
+     *
+     * @return The number of accounts.
+     */
+    public int getAccountCount() {
+        return accountCount;
+    }
+
+    /**
+     * Returns the lines that could not be loaded, in file order.
+     *
+     * @return The load errors.
+     */
+    public List<LoadError> getErrors() {
+        return errors;
+    }
+
+    /**
+     * Returns whether any line was rejected.
+     *
+     * @return {@code true} if there were load errors.
+     */
+    public boolean hasErrors() {
+        return !errors.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "Loaded " + accountCount + " accounts, " + errors.size() + " invalid lines";
+    }
+}
@@ -4,18 +4,23 @@ import java.math.BigDecimal;
 
 /**
  * Represents an event within the model, providing information about the event kind, balance, and agent status.
+ * Events about a specific account also carry that account's ID, and balance updates carry
+ * the net change to the balance.
  */
 public class ModelEvent {
     /**
-     * Enumeration of possible event kinds.
+     * Enumeration of possible event kinds. AccountAdded and AccountRemoved carry the ID of
+     * the account; AccountsReloaded means the whole set of accounts was replaced.
      */
     public enum EventKind {
-        BalanceUpdate, AgentStatusUpdate, AmountTransferredUpdate
+        BalanceUpdate, AgentStatusUpdate, AmountTransferredUpdate, AccountAdded, AccountRemoved, AccountsReloaded
     }
 
     private final EventKind kind;
     private final BigDecimal balance;
     private final AgentStatus agSt;
+    private final String accountId;
+    private final BigDecimal delta;
 
     /**
      * Constructs a ModelEvent with the specified kind, balance, and agent status.
@@ -25,9 +30,36 @@ public class ModelEvent {
      * @param agSt The agent status related to the event.
      */
     public ModelEvent(EventKind kind, BigDecimal balance, AgentStatus agSt) {
+        this(kind, null, balance, agSt);
+    }
+
+    /**
+     * Constructs a ModelEvent about a specific account.
+     *
+     * @param kind The kind of the event.
+     * @param accountId The ID of the account the event is about.
+     * @param balance The account balance related to the event.
+     * @param agSt The agent status related to the event.
+     */
+    public ModelEvent(EventKind kind, String accountId, BigDecimal balance, AgentStatus agSt) {
+        this(kind, accountId, balance, null, agSt);
+    }
+
+    /**
+     * Constructs a ModelEvent about a change to a specific account's balance.
+     *
+     * @param kind The kind of the event.
+     * @param accountId The ID of the account the event is about.
+     * @param balance The account balance after the change.
+     * @param delta The net change to the balance.
+     * @param agSt The agent status related to the event.
+     */
+    public ModelEvent(EventKind kind, String accountId, BigDecimal balance, BigDecimal delta, AgentStatus agSt) {
         this.balance = balance;
         this.kind = kind;
         this.agSt = agSt;
+        this.accountId = accountId;
+        this.delta = delta;
     }
 
     /**
@@ -56,4 +88,22 @@ public class ModelEvent {
     public AgentStatus getAgStatus() {
         return agSt;
     }
+
+    /**
+     * Returns the ID of the account the event is about.
+     *
+     * @return The account ID, or {@code null} if the event is not about a single account.
+     */
+    public String getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * Returns the net change to the balance that the event reports.
+     *
+     * @return The balance change, or {@code null} if the event does not report one.
+     */
+    public BigDecimal getDelta() {
+        return delta;
+    }
 }
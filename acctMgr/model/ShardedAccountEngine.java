@@ -0,0 +1,479 @@
+package acctMgr.model;
+
+import acctMgr.metrics.AccountMetrics;
+import java.io.Closeable;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Applies account operations on a fixed set of worker threads, each of which owns the
+ * accounts whose IDs hash to its shard. Producers such as controllers submit commands and
+ * get a future back; the owning worker drains its commands from a {@link BoundedRingBuffer}
+ * and applies them one after another, so operations on an account never contend with each
+ * other and the account stays in that worker's cache.
+ * <p>
+ * A worker applies everything it drained in one pass, making the balance changes and
+ * journal records under a single hold of the journal append lock. When a journal is
+ * attached, the pass is then handed to a completer thread. That thread waits for the
+ * records to become durable, notifies listeners, and completes the futures. Workers
+ * therefore never block on the disk, and records from every shard share each flush.
+ * <p>
+ * Transfers follow the debit-owner rule. Only the shard that owns an account may take money
+ * out of it, since only a debit has to check the balance. A credit cannot fail and adds
+ * atomically to the balance, so it may be applied by any thread. A transfer is therefore
+ * queued to the source account's shard. That worker debits the source and credits the
+ * target in the same step, recording one Transfer record. No money is ever in flight
+ * between shards, so totals and snapshots never see a half-done transfer.
+ * <p>
+ * Operations made directly on {@link Account} or {@link AccountList} stay correct alongside
+ * the engine, but they give up the single-writer benefit for the accounts they touch.
+ */
+public class ShardedAccountEngine implements Closeable {
+    private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    private static final int MAX_DRAIN = 256;
+    private static final int IDLE_SPINS = 100;
+
+    private enum Op {
+        Deposit, Withdraw, Transfer, Balance
+    }
+
+    /**
+     * One submitted operation and the future it completes.
+     */
+    private static final class Command {
+        final Op op;
+        final String accountId;
+        final String toAccountId;
+        final long amountCents;
+        final long startNanos = System.nanoTime();
+        final CompletableFuture<Long> future = new CompletableFuture<>();
+        Account account;
+        Account toAccount;
+        long balance;
+        long toBalance;
+        long result;
+        RuntimeException failure;
+
+        Command(Op op, String accountId, String toAccountId, long amountCents) {
+            this.op = op;
+            this.accountId = accountId;
+            this.toAccountId = toAccountId;
+            this.amountCents = amountCents;
+        }
+    }
+
+    /**
+     * Commands applied in one pass, waiting for their journal records to become durable.
+     */
+    private static final class PendingPass {
+        final Command[] commands;
+        final long lastSequence;
+
+        PendingPass(Command[] commands, long lastSequence) {
+            this.commands = commands;
+            this.lastSequence = lastSequence;
+        }
+    }
+
+    private static final PendingPass END = new PendingPass(new Command[0], 0);
+
+    private final AccountList accountList;
+    private final Shard[] shards;
+    private final BlockingQueue<PendingPass> durability = new LinkedBlockingQueue<>();
+    private final Thread completer;
+    private volatile boolean closed;
+
+    /**
+     * Starts an engine with the default queue capacity.
+     *
+     * @param accountList The accounts to operate on.
+     * @param shardCount  The number of worker threads.
+     */
+    public ShardedAccountEngine(AccountList accountList, int shardCount) {
+        this(accountList, shardCount, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Starts an engine.
+     *
+     * @param accountList   The accounts to operate on.
+     * @param shardCount    The number of worker threads.
+     * @param queueCapacity The number of commands each shard can hold before producers wait.
+     */
+    public ShardedAccountEngine(AccountList accountList, int shardCount, int queueCapacity) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("At least one shard is needed: " + shardCount);
+        }
+        this.accountList = accountList;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, queueCapacity);
+        }
+        completer = new Thread(this::completeDurable, "account-shard-completer");
+        completer.setDaemon(true);
+        completer.start();
+        for (Shard shard : shards) {
+            shard.worker.start();
+        }
+    }
+
+    /**
+     * Deposits into an account.
+     *
+     * @param accountId   The account.
+     * @param amountCents The amount in cents; must be positive.
+     * @return A future for the new balance in cents. It fails with an
+     *         {@link IllegalArgumentException} if the account does not exist.
+     */
+    public CompletableFuture<Long> deposit(String accountId, long amountCents) {
+        return submit(Op.Deposit, accountId, null, amountCents);
+    }
+
+    /**
+     * Withdraws from an account if the balance covers it.
+     *
+     * @param accountId   The account.
+     * @param amountCents The amount in cents; must be positive.
+     * @return A future for zero if the withdrawal was made, or the shortfall in cents if it
+     *         was declined. It fails with an {@link IllegalArgumentException} if the account
+     *         does not exist.
+     */
+    public CompletableFuture<Long> withdraw(String accountId, long amountCents) {
+        return submit(Op.Withdraw, accountId, null, amountCents);
+    }
+
+    /**
+     * Transfers between two accounts if the source balance covers it.
+     *
+     * @param fromId      The account to debit.
+     * @param toId        The account to credit.
+     * @param amountCents The amount in cents; must be positive.
+     * @return A future for zero if the transfer was made, or the shortfall in cents if it was
+     *         declined. It fails with an {@link IllegalArgumentException} if either account
+     *         does not exist or both IDs are the same.
+     */
+    public CompletableFuture<Long> transfer(String fromId, String toId, long amountCents) {
+        return submit(Op.Transfer, fromId, toId, amountCents);
+    }
+
+    /**
+     * Reads a balance in order with the operations already queued for the account.
+     *
+     * @param accountId The account.
+     * @return A future for the balance in cents.
+     */
+    public CompletableFuture<Long> balance(String accountId) {
+        return submit(Op.Balance, accountId, null, 0);
+    }
+
+    /**
+     * Returns the number of shards.
+     *
+     * @return The shard count.
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Returns the shard that owns an account ID.
+     *
+     * @param accountId The account ID.
+     * @return The shard index.
+     */
+    public int shardOf(String accountId) {
+        int h = accountId.hashCode();
+        // Spread the high bits so that IDs differing only there still separate
+        return Math.floorMod(h ^ (h >>> 16), shards.length);
+    }
+
+    /**
+     * Stops accepting commands, lets the workers finish what is queued, and stops them.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Shard shard : shards) {
+            LockSupport.unpark(shard.worker);
+        }
+        boolean interrupted = false;
+        for (Shard shard : shards) {
+            while (true) {
+                try {
+                    shard.worker.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            // Commands that raced with close are failed rather than left pending
+            failQueued(shard);
+        }
+        durability.add(END);
+        while (true) {
+            try {
+                completer.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Queues a command on the shard that owns its account, waiting while the queue is full.
+     */
+    private CompletableFuture<Long> submit(Op op, String accountId, String toAccountId, long amountCents) {
+        Command command = new Command(op, accountId, toAccountId, amountCents);
+        if (op != Op.Balance && amountCents <= 0) {
+            command.future.completeExceptionally(new IllegalArgumentException("Amount must be positive: " + amountCents));
+            return command.future;
+        }
+        Shard shard = shards[shardOf(accountId)];
+        while (!closed) {
+            if (shard.queue.offer(command)) {
+                if (shard.sleeping) {
+                    LockSupport.unpark(shard.worker);
+                }
+                // A live worker cannot stop while the command is queued, but if close stopped
+                // it and drained the queue before the offer landed, nobody else will see it
+                if (closed && !shard.worker.isAlive()) {
+                    failQueued(shard);
+                }
+                return command.future;
+            }
+            // Back-pressure: the owner is behind, so let it run
+            LockSupport.unpark(shard.worker);
+            Thread.yield();
+        }
+        command.future.completeExceptionally(new RejectedExecutionException("Engine is closed"));
+        return command.future;
+    }
+
+    /**
+     * Fails every command left in a shard's queue once its worker has stopped. Each command
+     * is polled by exactly one thread, so none is both applied and failed.
+     *
+     * @param shard The shard.
+     */
+    private static void failQueued(Shard shard) {
+        Command command;
+        while ((command = shard.queue.poll()) != null) {
+            command.future.completeExceptionally(new RejectedExecutionException("Engine is closed"));
+        }
+    }
+
+    /**
+     * A worker thread and the queue of commands for the accounts it owns.
+     */
+    private final class Shard implements Runnable {
+        final BoundedRingBuffer<Command> queue;
+        final Thread worker;
+        final Command[] batch = new Command[MAX_DRAIN];
+        volatile boolean sleeping;
+
+        Shard(int index, int queueCapacity) {
+            queue = new BoundedRingBuffer<>(queueCapacity);
+            worker = new Thread(this, "account-shard-" + index);
+            worker.setDaemon(true);
+        }
+
+        /**
+         * Drains and applies commands until the engine is closed and the queue is empty.
+         */
+        @Override
+        public void run() {
+            int idle = 0;
+            while (true) {
+                int count = 0;
+                Command command;
+                while (count < MAX_DRAIN && (command = queue.poll()) != null) {
+                    batch[count++] = command;
+                }
+                if (count > 0) {
+                    execute(count);
+                    idle = 0;
+                } else if (closed && queue.isEmpty()) {
+                    return;
+                } else if (++idle < IDLE_SPINS) {
+                    Thread.onSpinWait();
+                } else {
+                    // Announce the park before the last look, so a producer either sees the
+                    // flag and unparks us or its command is seen here
+                    sleeping = true;
+                    if (queue.isEmpty() && !closed) {
+                        LockSupport.park(this);
+                    }
+                    sleeping = false;
+                }
+            }
+        }
+
+        /**
+         * Applies the drained commands under one hold of the journal append lock, then
+         * completes them, or hands them to the completer if they must wait for the journal.
+         */
+        private void execute(int count) {
+            TransactionJournal journal = accountList.getJournal();
+            long lastSequence = 0;
+            if (journal != null) {
+                journal.beginAppend();
+            }
+            try {
+                for (int i = 0; i < count; i++) {
+                    long sequence = apply(batch[i], journal);
+                    if (sequence > 0) {
+                        lastSequence = sequence;
+                    }
+                }
+            } finally {
+                if (journal != null) {
+                    journal.endAppend();
+                }
+            }
+            if (journal == null) {
+                for (int i = 0; i < count; i++) {
+                    complete(batch[i]);
+                }
+            } else {
+                // Every pass goes through the completer, even one with no records, so that
+                // futures complete in the order their commands were applied
+                durability.add(new PendingPass(Arrays.copyOf(batch, count), lastSequence));
+            }
+            Arrays.fill(batch, 0, count, null);
+        }
+    }
+
+    /**
+     * Runs on the completer thread: waits for each pass's records to become durable, then
+     * completes its commands, until the engine is closed.
+     */
+    private void completeDurable() {
+        while (true) {
+            PendingPass pass;
+            try {
+                pass = durability.take();
+            } catch (InterruptedException e) {
+                continue;
+            }
+            if (pass == END) {
+                return;
+            }
+            RuntimeException journalFailure = null;
+            TransactionJournal journal = accountList.getJournal();
+            if (pass.lastSequence > 0 && journal != null) {
+                try {
+                    journal.awaitDurable(pass.lastSequence);
+                } catch (RuntimeException e) {
+                    journalFailure = e;
+                }
+            }
+            for (Command command : pass.commands) {
+                if (journalFailure != null && command.failure == null && command.op != Op.Balance) {
+                    command.future.completeExceptionally(journalFailure);
+                } else {
+                    complete(command);
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies one command's balance change and journal record, and records the change
+     * with the account list at once so the aggregates never miss it.
+     *
+     * @return The journal sequence number, or 0 if nothing was recorded.
+     */
+    private long apply(Command command, TransactionJournal journal) {
+        Account account = accountList.findById(command.accountId);
+        if (account == null) {
+            command.failure = new IllegalArgumentException("Unknown account: " + command.accountId);
+            return 0;
+        }
+        command.account = account;
+        switch (command.op) {
+            case Balance:
+                command.result = account.getBalanceCents();
+                return 0;
+            case Deposit:
+                command.balance = account.applyDeposit(command.amountCents);
+                command.result = command.balance;
+                account.recordChange(command.amountCents, command.balance);
+                return journal == null ? 0
+                        : journal.append(TransactionJournal.RecordType.Deposit, command.accountId, null, command.amountCents);
+            case Withdraw:
+                command.balance = account.applyWithdraw(command.amountCents);
+                command.result = command.balance < 0 ? -command.balance : 0;
+                if (command.result == 0) {
+                    account.recordChange(-command.amountCents, command.balance);
+                }
+                return journal == null || command.result > 0 ? 0
+                        : journal.append(TransactionJournal.RecordType.Withdraw, command.accountId, null, command.amountCents);
+            case Transfer: {
+                Account to = accountList.findById(command.toAccountId);
+                if (to == null || to == account) {
+                    command.failure = new IllegalArgumentException(to == null
+                            ? "Unknown account: " + command.toAccountId
+                            : "Cannot transfer within the same account: " + command.accountId);
+                    return 0;
+                }
+                command.toAccount = to;
+                command.balance = account.applyWithdraw(command.amountCents);
+                if (command.balance < 0) {
+                    command.result = -command.balance;
+                    return 0;
+                }
+                // The credit cannot fail, so the source's owner applies it directly
+                command.toBalance = to.applyDeposit(command.amountCents);
+                account.recordChange(-command.amountCents, command.balance);
+                to.recordChange(command.amountCents, command.toBalance);
+                return journal == null ? 0
+                        : journal.append(TransactionJournal.RecordType.Transfer, command.accountId,
+                                command.toAccountId, command.amountCents);
+            }
+            default:
+                throw new IllegalStateException("Unknown operation: " + command.op);
+        }
+    }
+
+    /**
+     * Notifies listeners of a durable change and completes the command's future.
+     */
+    private void complete(Command command) {
+        if (command.failure != null) {
+            command.future.completeExceptionally(command.failure);
+            return;
+        }
+        switch (command.op) {
+            case Deposit:
+                command.account.notifyListeners(command.amountCents);
+                AccountMetrics.get().recordDeposit(command.startNanos);
+                break;
+            case Withdraw:
+                if (command.result == 0) {
+                    command.account.notifyListeners(-command.amountCents);
+                }
+                AccountMetrics.get().recordWithdraw(command.startNanos, command.result > 0);
+                break;
+            case Transfer:
+                if (command.result == 0) {
+                    command.account.notifyListeners(-command.amountCents);
+                    command.toAccount.notifyListeners(command.amountCents);
+                    accountList.notifyChanged(new ModelEvent(ModelEvent.EventKind.AmountTransferredUpdate,
+                            command.accountId, BigDecimal.valueOf(command.amountCents, Account.SCALE), AgentStatus.NA));
+                }
+                break;
+            default:
+                break;
+        }
+        command.future.complete(command.result);
+    }
+}
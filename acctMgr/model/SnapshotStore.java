@@ -0,0 +1,266 @@
+package acctMgr.model;
+
+import java.io.*;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Stores compact snapshots of every account balance, each tagged with the journal sequence
+ * number it covers. On startup the latest valid snapshot is loaded and only the journal
+ * records after it are replayed, so startup time depends on the size of the book rather
+ * than on the length of its history.
+ * <p>
+ * A snapshot is written to a temporary file, fsynced, and atomically renamed into place,
+ * and ends with a CRC32 so a damaged snapshot is skipped in favour of an older one.
+ */
+public class SnapshotStore implements Closeable {
+    private static final int MAGIC = 0x41534E50; // "ASNP"
+    private static final int VERSION = 1;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".snap";
+
+    private final Path directory;
+    private final int retained;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * A snapshot loaded from disk.
+     */
+    public static class Snapshot {
+        private final long sequence;
+        private final List<Account> accounts;
+
+        Snapshot(long sequence, List<Account> accounts) {
+            this.sequence = sequence;
+            this.accounts = accounts;
+        }
+
+        /**
+         * Returns the journal sequence number the snapshot covers.
+         *
+         * @return The sequence number.
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * Returns the accounts in the snapshot.
+         *
+         * @return The accounts.
+         */
+        public List<Account> getAccounts() {
+            return accounts;
+        }
+    }
+
+    /**
+     * Constructs a SnapshotStore that keeps the two most recent snapshots.
+     *
+     * @param directory The directory to store snapshots in.
+     * @throws IOException If the directory cannot be created.
+     */
+    public SnapshotStore(Path directory) throws IOException {
+        this(directory, 2);
+    }
+
+    /**
+     * Constructs a SnapshotStore.
+     *
+     * @param directory The directory to store snapshots in.
+     * @param retained  The number of most recent snapshots to keep.
+     * @throws IOException If the directory cannot be created.
+     */
+    public SnapshotStore(Path directory, int retained) throws IOException {
+        this.directory = directory;
+        this.retained = Math.max(1, retained);
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * Takes a snapshot of the account list. If a journal is attached, the balances are
+     * copied under the journal's append lock, so they reflect exactly the records up to the
+     * tagged sequence number, and the journal is rolled over at that point. Once the
+     * snapshot is durable, older snapshots and the journal segments they alone needed are
+     * deleted.
+     *
+     * @param accountList The account list to snapshot.
+     * @return The journal sequence number the snapshot covers.
+     * @throws IOException If the snapshot cannot be written.
+     */
+    public long take(AccountList accountList) throws IOException {
+        TransactionJournal journal = accountList.getJournal();
+        List<String> names = new ArrayList<>();
+        List<String> ids = new ArrayList<>();
+        long[] balances;
+        long sequence = 0;
+        if (journal != null) {
+            journal.beginAppend();
+        }
+        try {
+            balances = new long[accountList.size() + 16];
+            int count = 0;
+            for (Account account : accountList.accounts()) {
+                if (count == balances.length) {
+                    balances = Arrays.copyOf(balances, count * 2);
+                }
+                names.add(account.getName());
+                ids.add(account.getId());
+                balances[count++] = account.getBalanceCents();
+            }
+            if (journal != null) {
+                sequence = journal.rollover();
+            }
+        } finally {
+            if (journal != null) {
+                journal.endAppend();
+            }
+        }
+
+        Path target = directory.resolve(fileName(sequence));
+        Path temp = directory.resolve(fileName(sequence) + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temp.toFile())) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file, 64 * 1024), new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sequence);
+            out.writeInt(ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                out.writeUTF(ids.get(i));
+                out.writeUTF(names.get(i));
+                out.writeLong(balances[i]);
+            }
+            out.flush();
+            out.writeLong(checked.getChecksum().getValue());
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        List<Path> snapshots = listSnapshots();
+        for (int i = 0; i < snapshots.size() - retained; i++) {
+            Files.deleteIfExists(snapshots.get(i));
+        }
+        if (journal != null) {
+            // Keep every segment the oldest retained snapshot still needs
+            int oldest = Math.max(0, snapshots.size() - retained);
+            journal.deleteSegmentsUpTo(sequenceOf(snapshots.get(oldest)));
+        }
+        return sequence;
+    }
+
+    /**
+     * Loads the most recent snapshot that is complete and passes its checksum.
+     *
+     * @return The latest valid snapshot, or {@code null} if there is none.
+     * @throws IOException If the snapshot directory cannot be listed.
+     */
+    public Snapshot loadLatest() throws IOException {
+        List<Path> snapshots = listSnapshots();
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            try {
+                return read(snapshots.get(i));
+            } catch (IOException e) {
+                // Damaged or truncated; fall back to the previous snapshot
+            }
+        }
+        return null;
+    }
+
+    private Snapshot read(Path file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 64 * 1024)) {
+            CheckedInputStream checked = new CheckedInputStream(in, new CRC32());
+            DataInputStream data = new DataInputStream(checked);
+            if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+                throw new IOException("Not a snapshot: " + file);
+            }
+            long sequence = data.readLong();
+            int count = data.readInt();
+            List<Account> accounts = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String id = data.readUTF();
+                String name = data.readUTF();
+                accounts.add(new Account(name, id, data.readLong()));
+            }
+            long expected = checked.getChecksum().getValue();
+            if (new DataInputStream(in).readLong() != expected) {
+                throw new IOException("Snapshot checksum mismatch: " + file);
+            }
+            return new Snapshot(sequence, accounts);
+        }
+    }
+
+    /**
+     * Starts taking a snapshot of the account list at a fixed period on a background thread.
+     *
+     * @param accountList   The account list to snapshot.
+     * @param periodSeconds The period between snapshots, in seconds.
+     */
+    public synchronized void startPeriodic(AccountList accountList, long periodSeconds) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "snapshot-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                take(accountList);
+            } catch (IOException e) {
+                System.err.println("Error writing snapshot: " + e.getMessage());
+            }
+        }, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops periodic snapshots, waiting for one in progress to finish.
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            scheduler = null;
+        }
+    }
+
+    private List<Path> listSnapshots() throws IOException {
+        List<Path> snapshots = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : stream) {
+                snapshots.add(file);
+            }
+        }
+        // Fixed-width sequence numbers sort numerically
+        Collections.sort(snapshots);
+        return snapshots;
+    }
+
+    private static String fileName(long sequence) {
+        return PREFIX + String.format("%020d", sequence) + SUFFIX;
+    }
+
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
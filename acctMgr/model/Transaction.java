@@ -0,0 +1,112 @@
+package acctMgr.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Represents a single posting (a deposit or a withdrawal) against one account,
+ * for use with {@link AccountList#applyBatch(java.util.Collection)}.
+ */
+public class Transaction {
+    /**
+     * Enumeration of posting kinds.
+     */
+    public enum Kind {
+        Deposit, Withdraw
+    }
+
+    private final String accountId;
+    private final Kind kind;
+    private final long amountCents;
+
+    /**
+     * Constructs a Transaction with the specified account ID, kind, and amount.
+     *
+     * @param accountId The ID of the account the posting applies to.
+     * @param kind      The kind of the posting.
+     * @param amount    The amount of the posting.
+     * @throws IllegalArgumentException If the amount is not positive.
+     */
+    public Transaction(String accountId, Kind kind, BigDecimal amount) {
+        this(accountId, kind, Account.toCents(amount));
+    }
+
+    /**
+     * Constructs a Transaction with the specified account ID, kind, and amount in cents.
+     *
+     * @param accountId   The ID of the account the posting applies to.
+     * @param kind        The kind of the posting.
+     * @param amountCents The amount of the posting, in cents.
+     * @throws IllegalArgumentException If the amount is not positive.
+     */
+    public Transaction(String accountId, Kind kind, long amountCents) {
+        if (amountCents <= 0) {
+            throw new IllegalArgumentException("Amount must be positive: " + BigDecimal.valueOf(amountCents, Account.SCALE));
+        }
+        this.accountId = accountId;
+        this.kind = kind;
+        this.amountCents = amountCents;
+    }
+
+    /**
+     * Creates a deposit posting.
+     *
+     * @param accountId The ID of the account to deposit into.
+     * @param amount    The amount to deposit.
+     * @return The deposit posting.
+     */
+    public static Transaction deposit(String accountId, BigDecimal amount) {
+        return new Transaction(accountId, Kind.Deposit, amount);
+    }
+
+    /**
+     * Creates a withdrawal posting.
+     *
+     * @param accountId The ID of the account to withdraw from.
+     * @param amount    The amount to withdraw.
+     * @return The withdrawal posting.
+     */
+    public static Transaction withdraw(String accountId, BigDecimal amount) {
+        return new Transaction(accountId, Kind.Withdraw, amount);
+    }
+
+    /**
+     * Returns the ID of the account the posting applies to.
+     *
+     * @return The account ID.
+     */
+    public String getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * Returns the kind of the posting.
+     *
+     * @return The posting kind.
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the amount of the posting.
+     *
+     * @return The amount.
+     */
+    public BigDecimal getAmount() {
+        return BigDecimal.valueOf(amountCents, Account.SCALE);
+    }
+
+    /**
+     * Returns the amount of the posting in cents.
+     *
+     * @return The amount in cents.
+     */
+    public long getAmountCents() {
+        return amountCents;
+    }
+
+    @Override
+    public String toString() {
+        return kind + " " + getAmount() + " (ID: " + accountId + ")";
+    }
+}
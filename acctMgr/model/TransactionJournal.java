@@ -0,0 +1,683 @@
+package acctMgr.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead journal of account operations. Every deposit, withdrawal,
+ * transfer, and account opening or closing is appended here before it is acknowledged
+ * to the caller.
+ * <p>
+ * Writers append their record into an in-memory buffer under a short lock and then wait
+ * for it to become durable. Durability uses group commit: whichever waiting writer finds
+ * the buffer due for a flush becomes the leader, writes and fsyncs everything appended so
+ * far, and wakes every writer it covered. When the flush happens is governed by a
+ * {@link SyncPolicy}.
+ * <p>
+ * Each record is framed as a length, a CRC32 of the payload, and the payload itself, so a
+ * record torn by a crash is detected and discarded on the next open or replay.
+ * <p>
+ * The journal can be {@linkplain #rollover() rolled over}: the live file is closed and kept
+ * as a segment named after its last sequence number, and appending continues in a fresh
+ * file. Snapshots use this so that only the segments after the latest snapshot need to be
+ * replayed, and older segments can be deleted.
+ */
+public class TransactionJournal implements Closeable {
+    /**
+     * Enumeration of journal record types.
+     */
+    public enum RecordType {
+        Open, Deposit, Withdraw, Transfer, Close
+    }
+
+    /**
+     * Decides when buffered records are flushed and fsynced. A flush happens as soon as the
+     * number of pending records reaches the batch size, or once the oldest pending record
+     * has waited for the maximum delay, whichever comes first.
+     */
+    public static class SyncPolicy {
+        private final int batchSize;
+        private final long maxDelayNanos;
+
+        private SyncPolicy(int batchSize, long maxDelayNanos) {
+            this.batchSize = batchSize;
+            this.maxDelayNanos = maxDelayNanos;
+        }
+
+        /**
+         * Flushes immediately on every append. Writers that arrive while an fsync is in
+         * progress are still committed together by the next flush.
+         *
+         * @return The per-operation policy.
+         */
+        public static SyncPolicy perOperation() {
+            return new SyncPolicy(1, 0);
+        }
+
+        /**
+         * Flushes once the oldest pending record has waited for the given window.
+         *
+         * @param windowMillis The commit window, in milliseconds.
+         * @return The time-window policy.
+         */
+        public static SyncPolicy timeWindow(long windowMillis) {
+            return new SyncPolicy(Integer.MAX_VALUE, TimeUnit.MILLISECONDS.toNanos(windowMillis));
+        }
+
+        /**
+         * Flushes once the given number of records are pending, or after the maximum delay
+         * so that a lone writer is not held up forever.
+         *
+         * @param batchSize      The number of records that triggers a flush.
+         * @param maxDelayMillis The longest a record may wait, in milliseconds.
+         * @return The batch-size policy.
+         */
+        public static SyncPolicy batchSize(int batchSize, long maxDelayMillis) {
+            return new SyncPolicy(Math.max(1, batchSize), TimeUnit.MILLISECONDS.toNanos(maxDelayMillis));
+        }
+
+        /**
+         * Returns how long to wait before the pending records are due for a flush.
+         *
+         * @param pendingCount       The number of pending records.
+         * @param oldestPendingNanos The {@link System#nanoTime()} of the oldest pending record.
+         * @return The remaining delay in nanoseconds, zero or less if a flush is due.
+         */
+        long remainingNanos(int pendingCount, long oldestPendingNanos) {
+            if (pendingCount >= batchSize) {
+                return 0;
+            }
+            return maxDelayNanos - (System.nanoTime() - oldestPendingNanos);
+        }
+    }
+
+    /**
+     * A record read back from the journal.
+     */
+    public static class JournalRecord {
+        private final long sequence;
+        private final RecordType type;
+        private final String accountId;
+        private final String other;
+        private final long amountCents;
+
+        JournalRecord(long sequence, RecordType type, String accountId, String other, long amountCents) {
+            this.sequence = sequence;
+            this.type = type;
+            this.accountId = accountId;
+            this.other = other;
+            this.amountCents = amountCents;
+        }
+
+        /**
+         * Returns the sequence number of the record.
+         *
+         * @return The sequence number.
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * Returns the type of the record.
+         *
+         * @return The record type.
+         */
+        public RecordType getType() {
+            return type;
+        }
+
+        /**
+         * Returns the account the record applies to; for a transfer, the source account.
+         *
+         * @return The account ID.
+         */
+        public String getAccountId() {
+            return accountId;
+        }
+
+        /**
+         * Returns the destination account ID of a transfer.
+         *
+         * @return The destination account ID, or {@code null} for other record types.
+         */
+        public String getToAccountId() {
+            return type == RecordType.Transfer ? other : null;
+        }
+
+        /**
+         * Returns the account holder's name of an account opening.
+         *
+         * @return The name, or {@code null} for other record types.
+         */
+        public String getName() {
+            return type == RecordType.Open ? other : null;
+        }
+
+        /**
+         * Returns the amount of the record in cents; for an opening, the opening balance.
+         *
+         * @return The amount in cents.
+         */
+        public long getAmountCents() {
+            return amountCents;
+        }
+
+        @Override
+        public String toString() {
+            return "#" + sequence + " " + type + " " + accountId + (other != null ? " " + other : "")
+                    + " " + amountCents;
+        }
+    }
+
+    private static final int HEADER_BYTES = 8;
+    // Field lengths are stored in two bytes, and 0xFFFF marks an absent second field
+    private static final int MAX_FIELD_BYTES = 0xFFFE;
+    private static final int MAX_PAYLOAD_BYTES = 1 << 20;
+    private static final int SEGMENT_DIGITS = 20;
+
+    private final Path path;
+    private FileChannel channel;
+    private final SyncPolicy policy;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+    private final CRC32 crc = new CRC32();
+
+    private ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+    private ByteBuffer spare = ByteBuffer.allocate(64 * 1024);
+    private int pendingCount;
+    private long oldestPendingNanos;
+    private long lastSequence;
+    private long durableSequence;
+    private boolean flushing;
+    private IOException failure;
+    private long syncCount;
+
+    private TransactionJournal(Path path, FileChannel channel, SyncPolicy policy, long lastSequence) {
+        this.path = path;
+        this.channel = channel;
+        this.policy = policy;
+        this.lastSequence = lastSequence;
+        this.durableSequence = lastSequence;
+    }
+
+    /**
+     * Opens a journal for appending, creating the file if needed. Existing records are
+     * scanned so numbering continues where it left off, and a torn record at the end of
+     * the file is truncated.
+     *
+     * @param path   The journal file.
+     * @param policy The sync policy for group commit.
+     * @return The open journal.
+     * @throws IOException If the file cannot be opened or scanned.
+     */
+    public static TransactionJournal open(Path path, SyncPolicy policy) throws IOException {
+        List<Path> segments = listSegments(path);
+        long[] last = {segments.isEmpty() ? 0 : segmentSequence(path, segments.get(segments.size() - 1))};
+        long validEnd = scan(path, 0, record -> last[0] = record.getSequence());
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        channel.truncate(validEnd);
+        channel.position(validEnd);
+        return new TransactionJournal(path, channel, policy, last[0]);
+    }
+
+    /**
+     * Reads every valid record with a sequence number greater than {@code afterSequence},
+     * in order, stopping at the end of the file or at the first torn or corrupt record.
+     *
+     * @param path          The journal file.
+     * @param afterSequence Records at or below this sequence number are skipped.
+     * @param handler       Receives each record.
+     * @return The sequence number of the last valid record, or {@code afterSequence} if none.
+     * @throws IOException If the file cannot be read.
+     */
+    public static long replay(Path path, long afterSequence, Consumer<JournalRecord> handler) throws IOException {
+        long[] last = {afterSequence};
+        Consumer<JournalRecord> tracking = record -> {
+            handler.accept(record);
+            last[0] = record.getSequence();
+        };
+        // Rolled-over segments first, skipping those wholly at or below the starting point
+        for (Path segment : listSegments(path)) {
+            if (segmentSequence(path, segment) > afterSequence) {
+                scan(segment, afterSequence, tracking);
+            }
+        }
+        scan(path, afterSequence, tracking);
+        return last[0];
+    }
+
+    /**
+     * Lists the rolled-over segments of a journal, oldest first.
+     */
+    private static List<Path> listSegments(Path path) throws IOException {
+        Path dir = path.toAbsolutePath().getParent();
+        String prefix = path.getFileName() + ".";
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, prefix + "*")) {
+            for (Path candidate : stream) {
+                String suffix = candidate.getFileName().toString().substring(prefix.length());
+                if (suffix.length() == SEGMENT_DIGITS && suffix.chars().allMatch(Character::isDigit)) {
+                    segments.add(candidate);
+                }
+            }
+        }
+        // Fixed-width suffixes sort numerically
+        Collections.sort(segments);
+        return segments;
+    }
+
+    /**
+     * Returns the last sequence number contained in a segment, taken from its name.
+     */
+    private static long segmentSequence(Path path, Path segment) {
+        return Long.parseLong(segment.getFileName().toString().substring(path.getFileName().toString().length() + 1));
+    }
+
+    /**
+     * Scans the journal, passing each valid record after the given sequence to the handler.
+     *
+     * @return The file offset just past the last valid record.
+     */
+    private static long scan(Path path, long afterSequence, Consumer<JournalRecord> handler) throws IOException {
+        if (!path.toFile().exists()) {
+            return 0;
+        }
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(256 * 1024);
+            long validEnd = 0;
+            CRC32 check = new CRC32();
+            while (true) {
+                buffer.clear();
+                in.position(validEnd);
+                int read = readFully(in, buffer);
+                buffer.flip();
+                int consumed = 0;
+                while (buffer.remaining() >= HEADER_BYTES) {
+                    int start = buffer.position();
+                    int length = buffer.getInt();
+                    int expectedCrc = buffer.getInt();
+                    if (length <= 0 || length > MAX_PAYLOAD_BYTES) {
+                        return validEnd + consumed;
+                    }
+                    if (buffer.remaining() < length) {
+                        buffer.position(start);
+                        break;
+                    }
+                    check.reset();
+                    check.update(buffer.array(), buffer.position(), length);
+                    if ((int) check.getValue() != expectedCrc) {
+                        return validEnd + consumed;
+                    }
+                    JournalRecord record = decode(buffer);
+                    consumed = buffer.position();
+                    if (record.getSequence() > afterSequence) {
+                        handler.accept(record);
+                    }
+                }
+                if (consumed == 0) {
+                    if (read < buffer.capacity()) {
+                        // End of file, possibly after a torn record
+                        return validEnd;
+                    }
+                    // A single record larger than the buffer
+                    buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+                }
+                validEnd += consumed;
+            }
+        }
+    }
+
+    private static int readFully(FileChannel in, ByteBuffer buffer) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int n = in.read(buffer);
+            if (n < 0) {
+                return total == 0 ? -1 : total;
+            }
+            total += n;
+        }
+        return total;
+    }
+
+    private static JournalRecord decode(ByteBuffer buffer) {
+        long sequence = buffer.getLong();
+        RecordType type = RecordType.values()[buffer.get()];
+        long amountCents = buffer.getLong();
+        String accountId = readString(buffer);
+        String other = readString(buffer);
+        return new JournalRecord(sequence, type, accountId, other, amountCents);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        if (length == 0xFFFF) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    /**
+     * Acquires the append lock. Callers apply their in-memory change and {@link #append}
+     * the matching record while holding it, so the journal order is the order in which
+     * changes became visible. The lock must be released with {@link #endAppend()} before
+     * calling {@link #awaitDurable(long)}.
+     */
+    public void beginAppend() {
+        lock.lock();
+    }
+
+    /**
+     * Releases the append lock acquired by {@link #beginAppend()}.
+     */
+    public void endAppend() {
+        lock.unlock();
+    }
+
+    /**
+     * Appends a record to the pending buffer. The caller must hold the append lock.
+     *
+     * @param type        The record type.
+     * @param accountId   The account the record applies to; for a transfer, the source.
+     * @param other       The destination ID of a transfer, the name of an opening, or {@code null}.
+     * @param amountCents The amount in cents.
+     * @return The sequence number assigned to the record.
+     * @throws IllegalArgumentException If the ID or the other field is longer than 0xFFFE
+     *                                  bytes in UTF-8; nothing is appended.
+     */
+    public long append(RecordType type, String accountId, String other, long amountCents) {
+        if (!lock.isHeldByCurrentThread()) {
+            throw new IllegalStateException("append requires beginAppend()");
+        }
+        byte[] id = encodeField(accountId);
+        byte[] extra = other == null ? null : encodeField(other);
+        int payload = 8 + 1 + 8 + 2 + id.length + 2 + (extra == null ? 0 : extra.length);
+        ensureCapacity(HEADER_BYTES + payload);
+
+        long sequence = ++lastSequence;
+        int start = pending.position();
+        pending.putInt(payload);
+        pending.putInt(0);
+        pending.putLong(sequence);
+        pending.put((byte) type.ordinal());
+        pending.putLong(amountCents);
+        pending.putShort((short) id.length);
+        pending.put(id);
+        if (extra == null) {
+            pending.putShort((short) 0xFFFF);
+        } else {
+            pending.putShort((short) extra.length);
+            pending.put(extra);
+        }
+        crc.reset();
+        crc.update(pending.array(), start + HEADER_BYTES, payload);
+        pending.putInt(start + 4, (int) crc.getValue());
+
+        if (pendingCount++ == 0) {
+            oldestPendingNanos = System.nanoTime();
+        }
+        return sequence;
+    }
+
+    /**
+     * Checks that an account's ID and name fit in a record, so that callers can refuse an
+     * account before changing any state rather than fail when its first record is appended.
+     *
+     * @param accountId The account ID.
+     * @param name The account name, or {@code null}.
+     * @throws IllegalArgumentException If either is longer than 0xFFFE bytes in UTF-8.
+     */
+    static void checkFields(String accountId, String name) {
+        encodeField(accountId);
+        if (name != null) {
+            encodeField(name);
+        }
+    }
+
+    /**
+     * Encodes a record field as UTF-8.
+     *
+     * @param value The field.
+     * @return The encoded bytes.
+     * @throws IllegalArgumentException If the encoding is longer than 0xFFFE bytes.
+     */
+    private static byte[] encodeField(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_FIELD_BYTES) {
+            throw new IllegalArgumentException("Field too long for the journal: " + bytes.length + " bytes");
+        }
+        return bytes;
+    }
+
+    /**
+     * Appends a single record and waits until it is durable.
+     *
+     * @param type        The record type.
+     * @param accountId   The account the record applies to.
+     * @param other       The destination ID of a transfer, the name of an opening, or {@code null}.
+     * @param amountCents The amount in cents.
+     * @return The sequence number assigned to the record.
+     */
+    public long record(RecordType type, String accountId, String other, long amountCents) {
+        long sequence;
+        beginAppend();
+        try {
+            sequence = append(type, accountId, other, amountCents);
+        } finally {
+            endAppend();
+        }
+        awaitDurable(sequence);
+        return sequence;
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (pending.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + bytes));
+            pending.flip();
+            larger.put(pending);
+            pending = larger;
+        }
+    }
+
+    /**
+     * Blocks until every record up to the given sequence number has been written and
+     * fsynced, leading the flush if it is due and no other writer is already flushing.
+     *
+     * @param sequence The sequence number to wait for.
+     * @throws UncheckedIOException If writing or syncing the journal failed.
+     */
+    public void awaitDurable(long sequence) {
+        boolean interrupted = false;
+        lock.lock();
+        try {
+            while (durableSequence < sequence) {
+                if (failure != null) {
+                    throw new UncheckedIOException("Journal write failed: " + path, failure);
+                }
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                    continue;
+                }
+                long remaining = policy.remainingNanos(pendingCount, oldestPendingNanos);
+                if (remaining <= 0) {
+                    flush();
+                    continue;
+                }
+                try {
+                    flushed.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    // The change is already applied, so finish waiting for it to be durable
+                    interrupted = true;
+                }
+            }
+        } finally {
+            lock.unlock();
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Writes and fsyncs the pending buffer as group-commit leader. Called with the lock
+     * held; the lock is released during the I/O so other writers can keep appending.
+     */
+    private void flush() {
+        FileChannel out = channel;
+        ByteBuffer toWrite = pending;
+        pending = spare;
+        spare = null;
+        long upTo = lastSequence;
+        pendingCount = 0;
+        flushing = true;
+        lock.unlock();
+        IOException error = null;
+        try {
+            toWrite.flip();
+            while (toWrite.hasRemaining()) {
+                out.write(toWrite);
+            }
+            out.force(false);
+        } catch (IOException e) {
+            error = e;
+        } finally {
+            lock.lock();
+            toWrite.clear();
+            spare = toWrite;
+            flushing = false;
+            if (error == null) {
+                durableSequence = upTo;
+                syncCount++;
+            } else {
+                failure = error;
+            }
+            flushed.signalAll();
+        }
+    }
+
+    /**
+     * Makes every appended record durable, then closes the live file as a segment and
+     * continues in a fresh file. Called while holding the append lock, the new file begins
+     * exactly after the records appended so far.
+     *
+     * @return The last sequence number contained in the rolled-over segment.
+     * @throws IOException If the journal cannot be flushed or the files cannot be switched.
+     */
+    public long rollover() throws IOException {
+        lock.lock();
+        try {
+            while (flushing || pendingCount > 0) {
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                } else {
+                    flush();
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            long upTo = lastSequence;
+            if (channel.size() == 0) {
+                // Nothing written since the last rollover; keep using the empty file
+                return upTo;
+            }
+            channel.force(true);
+            channel.close();
+            Path segment = path.resolveSibling(path.getFileName() + "." + String.format("%0" + SEGMENT_DIGITS + "d", upTo));
+            Files.move(path, segment, StandardCopyOption.ATOMIC_MOVE);
+            channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            return upTo;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes rolled-over segments whose records all have sequence numbers at or below the
+     * given one, because a durable snapshot already covers them.
+     *
+     * @param sequence The highest sequence number covered by a retained snapshot.
+     * @throws IOException If a segment cannot be deleted.
+     */
+    public void deleteSegmentsUpTo(long sequence) throws IOException {
+        for (Path segment : listSegments(path)) {
+            if (segmentSequence(path, segment) <= sequence) {
+                Files.deleteIfExists(segment);
+            }
+        }
+    }
+
+    /**
+     * Returns the sequence number of the last appended record.
+     *
+     * @return The last sequence number.
+     */
+    public long getLastSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of fsyncs performed so far. With group commit this is usually far
+     * lower than the number of records appended under concurrency.
+     *
+     * @return The number of fsyncs.
+     */
+    public long getSyncCount() {
+        lock.lock();
+        try {
+            return syncCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the journal file.
+     *
+     * @return The path of the journal.
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Flushes any pending records and closes the journal.
+     *
+     * @throws IOException If the final flush or close fails.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            awaitDurable(getLastSequence());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            channel.close();
+        }
+    }
+}
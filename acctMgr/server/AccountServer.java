@@ -0,0 +1,171 @@
+package acctMgr.server;
+
+import acctMgr.controller.AccountServiceController;
+import acctMgr.model.AccountList;
+import acctMgr.model.ShardedAccountEngine;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves an {@link AccountList} over TCP with a line-based text protocol; see
+ * {@link AccountServiceController} for the commands. Each connection is handled by its own
+ * virtual thread, which blocks on the socket without tying up a platform thread, so tens
+ * of thousands of idle or slow clients cost little more than their buffers. A client ends
+ * its session with {@code QUIT}.
+ */
+public class AccountServer implements Closeable {
+    private static final int BACKLOG = 4096;
+
+    private final AccountList accountList;
+    private final ShardedAccountEngine engine;
+    private final ServerSocket serverSocket;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicLong connectionCount = new AtomicLong();
+    private final Thread acceptor;
+    private volatile boolean closed;
+
+    /**
+     * Starts a server on the given address.
+     *
+     * @param accountList The accounts to serve.
+     * @param address The address to bind to; port 0 picks a free port.
+     * @throws IOException If the socket cannot be bound.
+     */
+    public AccountServer(AccountList accountList, InetSocketAddress address) throws IOException {
+        this(accountList, address, null);
+    }
+
+    /**
+     * Starts a server on the given address whose connections apply balance changes through a
+     * sharded engine.
+     *
+     * @param accountList The accounts to serve.
+     * @param address The address to bind to; port 0 picks a free port.
+     * @param engine The engine to submit operations to, or {@code null} to apply them directly.
+     * @throws IOException If the socket cannot be bound.
+     */
+    public AccountServer(AccountList accountList, InetSocketAddress address, ShardedAccountEngine engine) throws IOException {
+        this.accountList = accountList;
+        this.engine = engine;
+        serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(address, BACKLOG);
+        acceptor = Thread.ofPlatform().name("account-server-accept").daemon().start(this::acceptLoop);
+    }
+
+    /**
+     * Starts a server on the loopback interface.
+     *
+     * @param accountList The accounts to serve.
+     * @param port The port; 0 picks a free port.
+     * @throws IOException If the socket cannot be bound.
+     */
+    public AccountServer(AccountList accountList, int port) throws IOException {
+        this(accountList, new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return The local port.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns the number of connections currently open.
+     *
+     * @return The open connection count.
+     */
+    public int getOpenConnections() {
+        return connections.size();
+    }
+
+    /**
+     * Accepts connections until the server is closed.
+     */
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.add(socket);
+                Thread.ofVirtual().name("account-conn-" + connectionCount.incrementAndGet())
+                        .start(() -> serve(socket));
+            } catch (IOException e) {
+                if (!closed) {
+                    System.err.println("Error accepting connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads commands from one client and answers each before reading the next.
+     *
+     * @param socket The client socket.
+     */
+    private void serve(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            ConnectionView view = new ConnectionView(out);
+            AccountServiceController controller = new AccountServiceController(view, accountList, engine);
+            view.setController(controller);
+            view.setModel(accountList);
+            for (String line; (line = in.readLine()) != null; ) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                if ("QUIT".equalsIgnoreCase(line.trim())) {
+                    view.reply("BYE");
+                    view.flush();
+                    break;
+                }
+                controller.operation(line);
+                view.flush();
+            }
+        } catch (IOException | UncheckedIOException e) {
+            // The client went away; nothing to answer
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    /**
+     * Stops accepting connections and closes every open one.
+     *
+     * @throws IOException If the server socket cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+        for (Socket socket : connections) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Closing anyway
+            }
+        }
+        try {
+            acceptor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package acctMgr.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Client for {@link BinaryAccountServer} that pipelines requests. Each request method
+ * buffers the request and returns a future at once; buffered requests are sent when the
+ * buffer fills or {@link #flush()} is called. A reader thread matches responses to their
+ * futures by correlation ID. The client may be used from several threads.
+ */
+public class BinaryAccountClient implements Closeable {
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The outcome of one request.
+     */
+    public static final class Response {
+        private final BinaryProtocol.Status status;
+        private final long value;
+
+        Response(BinaryProtocol.Status status, long value) {
+            this.status = status;
+            this.value = value;
+        }
+
+        /**
+         * Returns the outcome of the request.
+         *
+         * @return The status.
+         */
+        public BinaryProtocol.Status getStatus() {
+            return status;
+        }
+
+        /**
+         * Returns the balance in cents for a Get, the shortfall in cents for an Overdraw,
+         * and zero otherwise.
+         *
+         * @return The value.
+         */
+        public long getValue() {
+            return value;
+        }
+    }
+
+    private final SocketChannel channel;
+    private final ByteBuffer out = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+    private final Map<Long, CompletableFuture<Response>> pending = new ConcurrentHashMap<>();
+    private final AtomicLong nextCorrelationId = new AtomicLong();
+    private final Thread reader;
+
+    /**
+     * Connects to a server.
+     *
+     * @param address The server address.
+     * @throws IOException If the connection fails.
+     */
+    public BinaryAccountClient(InetSocketAddress address) throws IOException {
+        channel = SocketChannel.open(address);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        reader = Thread.ofVirtual().name("binary-client-reader").start(this::readLoop);
+    }
+
+    /**
+     * Queues a deposit.
+     *
+     * @param accountId The account.
+     * @param cents The amount in cents.
+     * @return The future response.
+     * @throws IOException If the buffer had to be sent and could not be.
+     */
+    public CompletableFuture<Response> deposit(String accountId, long cents) throws IOException {
+        return send(BinaryProtocol.Op.Deposit, accountId, null, cents);
+    }
+
+    /**
+     * Queues a withdrawal.
+     *
+     * @param accountId The account.
+     * @param cents The amount in cents.
+     * @return The future response.
+     * @throws IOException If the buffer had to be sent and could not be.
+     */
+    public CompletableFuture<Response> withdraw(String accountId, long cents) throws IOException {
+        return send(BinaryProtocol.Op.Withdraw, accountId, null, cents);
+    }
+
+    /**
+     * Queues a transfer.
+     *
+     * @param fromId The account to debit.
+     * @param toId The account to credit.
+     * @param cents The amount in cents.
+     * @return The future response.
+     * @throws IOException If the buffer had to be sent and could not be.
+     */
+    public CompletableFuture<Response> transfer(String fromId, String toId, long cents) throws IOException {
+        return send(BinaryProtocol.Op.Transfer, fromId, toId, cents);
+    }
+
+    /**
+     * Queues a balance lookup.
+     *
+     * @param accountId The account.
+     * @return The future response, whose value is the balance in cents.
+     * @throws IOException If the buffer had to be sent and could not be.
+     */
+    public CompletableFuture<Response> get(String accountId) throws IOException {
+        return send(BinaryProtocol.Op.Get, accountId, null, 0);
+    }
+
+    /**
+     * Buffers one request, sending the buffer first if it is full. The future is registered
+     * only once the request is buffered, so a rejected request leaves nothing behind; the
+     * request cannot be answered before then, because it is sent by a later flush.
+     *
+     * @throws IllegalArgumentException If an account ID is too long to encode.
+     */
+    private synchronized CompletableFuture<Response> send(BinaryProtocol.Op op, String accountId, String toId, long cents)
+            throws IOException {
+        long correlationId = nextCorrelationId.incrementAndGet();
+        if (!BinaryProtocol.writeRequest(out, correlationId, op, accountId, toId, cents)) {
+            flush();
+            BinaryProtocol.writeRequest(out, correlationId, op, accountId, toId, cents);
+        }
+        CompletableFuture<Response> future = new CompletableFuture<>();
+        pending.put(correlationId, future);
+        return future;
+    }
+
+    /**
+     * Sends every buffered request.
+     *
+     * @throws IOException If the requests cannot be sent.
+     */
+    public synchronized void flush() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    /**
+     * Completes futures as responses arrive, until the connection closes.
+     */
+    private void readLoop() {
+        ByteBuffer in = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        IOException failure = null;
+        try {
+            while (channel.read(in) >= 0) {
+                in.flip();
+                while (in.remaining() >= BinaryProtocol.RESPONSE_SIZE) {
+                    in.getInt();
+                    long correlationId = in.getLong();
+                    BinaryProtocol.Status status = BinaryProtocol.Status.fromCode(in.get());
+                    long value = in.getLong();
+                    CompletableFuture<Response> future = pending.remove(correlationId);
+                    if (future != null) {
+                        future.complete(new Response(status, value));
+                    }
+                }
+                in.compact();
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+        IOException cause = failure != null ? failure : new IOException("Connection closed");
+        for (CompletableFuture<Response> future : pending.values()) {
+            future.completeExceptionally(cause);
+        }
+        pending.clear();
+    }
+
+    /**
+     * Closes the connection. Requests still awaiting a response fail.
+     *
+     * @throws IOException If the channel cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        try {
+            reader.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,409 @@
+package acctMgr.server;
+
+import acctMgr.model.Account;
+import acctMgr.model.AccountList;
+import acctMgr.model.BatchResult;
+import acctMgr.model.OverdrawException;
+import acctMgr.model.ShardedAccountEngine;
+import acctMgr.model.Transaction;
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves an {@link AccountList} over the pipelined binary protocol described in
+ * {@link BinaryProtocol}, with one virtual thread per connection.
+ * <p>
+ * Clients may send many requests without waiting for responses. Each time the server
+ * reads from a connection it decodes every complete request received so far. Consecutive
+ * deposits and withdrawals among them are applied together with
+ * {@link AccountList#applyBatch}, which locks each account and waits for the journal once
+ * per batch rather than once per request. Transfers and lookups run one by one, in order
+ * with the batches around them. The responses to everything read are then sent with a
+ * single gathering write.
+ * <p>
+ * When given a {@link ShardedAccountEngine}, every request read is submitted to the engine
+ * instead, and the responses are written once the engine has completed them. Transfers
+ * wait for the requests before them and hold back the ones after them, because the engine
+ * only keeps requests in order within the shard of the account they are queued to.
+ */
+public class BinaryAccountServer implements Closeable {
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int RESPONSE_CHUNK_SIZE = 16 * 1024;
+
+    private final AccountList accountList;
+    private final ShardedAccountEngine engine;
+    private final ServerSocketChannel serverChannel;
+    private final Set<SocketChannel> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicLong connectionCount = new AtomicLong();
+    private final Thread acceptor;
+    private volatile boolean closed;
+
+    /**
+     * Starts a server on the given address.
+     *
+     * @param accountList The accounts to serve.
+     * @param address The address to bind to; port 0 picks a free port.
+     * @throws IOException If the socket cannot be bound.
+     */
+    public BinaryAccountServer(AccountList accountList, InetSocketAddress address) throws IOException {
+        this(accountList, address, null);
+    }
+
+    /**
+     * Starts a server on the given address whose requests are applied through a sharded
+     * engine.
+     *
+     * @param accountList The accounts to serve.
+     * @param address The address to bind to; port 0 picks a free port.
+     * @param engine The engine to submit requests to, or {@code null} to apply them directly.
+     * @throws IOException If the socket cannot be bound.
+     */
+    public BinaryAccountServer(AccountList accountList, InetSocketAddress address, ShardedAccountEngine engine)
+            throws IOException {
+        this.accountList = accountList;
+        this.engine = engine;
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        serverChannel.bind(address, 4096);
+        acceptor = Thread.ofPlatform().name("binary-server-accept").daemon().start(this::acceptLoop);
+    }
+
+    /**
+     * Starts a server on the loopback interface.
+     *
+     * @param accountList The accounts to serve.
+     * @param port The port; 0 picks a free port.
+     * @throws IOException If the socket cannot be bound.
+     */
+    public BinaryAccountServer(AccountList accountList, int port) throws IOException {
+        this(accountList, new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return The local port.
+     * @throws IOException If the address cannot be read.
+     */
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Accepts connections until the server is closed.
+     */
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                connections.add(channel);
+                Thread.ofVirtual().name("binary-conn-" + connectionCount.incrementAndGet())
+                        .start(() -> serve(channel));
+            } catch (IOException e) {
+                if (!closed) {
+                    System.err.println("Error accepting connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads, applies and answers requests from one client until it disconnects.
+     *
+     * @param channel The client channel.
+     */
+    private void serve(SocketChannel channel) {
+        ByteBuffer in = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        List<ByteBuffer> chunks = new ArrayList<>();
+        List<BinaryProtocol.Request> requests = new ArrayList<>();
+        try (channel) {
+            while (channel.read(in) >= 0) {
+                in.flip();
+                try {
+                    for (BinaryProtocol.Request request; (request = BinaryProtocol.readRequest(in)) != null; ) {
+                        requests.add(request);
+                    }
+                } catch (IllegalStateException e) {
+                    // Framing is lost; answer what was read and drop the connection
+                    respond(channel, requests, chunks);
+                    return;
+                }
+                in.compact();
+                respond(channel, requests, chunks);
+            }
+        } catch (IOException e) {
+            // The client went away; nothing to answer
+        } finally {
+            connections.remove(channel);
+        }
+    }
+
+    /**
+     * Applies the requests read so far and writes all of their responses at once.
+     *
+     * @param channel The client channel.
+     * @param requests The requests, cleared afterwards.
+     * @param chunks Reusable response buffers for this connection.
+     * @throws IOException If the responses cannot be written.
+     */
+    private void respond(SocketChannel channel, List<BinaryProtocol.Request> requests, List<ByteBuffer> chunks)
+            throws IOException {
+        if (requests.isEmpty()) {
+            return;
+        }
+        ResponseWriter out = new ResponseWriter(chunks);
+        if (engine != null) {
+            submitAll(requests, out);
+        } else {
+            int i = 0;
+            while (i < requests.size()) {
+                BinaryProtocol.Request request = requests.get(i);
+                if (request.op == BinaryProtocol.Op.Deposit || request.op == BinaryProtocol.Op.Withdraw) {
+                    int end = i;
+                    while (end < requests.size() && (requests.get(end).op == BinaryProtocol.Op.Deposit
+                            || requests.get(end).op == BinaryProtocol.Op.Withdraw)) {
+                        end++;
+                    }
+                    applyPostings(requests.subList(i, end), out);
+                    i = end;
+                } else {
+                    applyOne(request, out);
+                    i++;
+                }
+            }
+        }
+        requests.clear();
+        ByteBuffer[] pending = out.finish();
+        while (pending[pending.length - 1].hasRemaining()) {
+            channel.write(pending);
+        }
+    }
+
+    /**
+     * Applies a run of deposits and withdrawals as one batch.
+     *
+     * @param run The requests.
+     * @param out Where responses are written.
+     */
+    private void applyPostings(List<BinaryProtocol.Request> run, ResponseWriter out) {
+        List<Transaction> batch = new ArrayList<>(run.size());
+        int[] requestOf = new int[run.size()];
+        long[] shortfall = new long[run.size()];
+        BinaryProtocol.Status[] status = new BinaryProtocol.Status[run.size()];
+        for (int k = 0; k < run.size(); k++) {
+            BinaryProtocol.Request request = run.get(k);
+            if (request.cents <= 0) {
+                status[k] = BinaryProtocol.Status.BadRequest;
+                continue;
+            }
+            status[k] = BinaryProtocol.Status.Ok;
+            Transaction.Kind kind = request.op == BinaryProtocol.Op.Deposit
+                    ? Transaction.Kind.Deposit : Transaction.Kind.Withdraw;
+            requestOf[batch.size()] = k;
+            batch.add(new Transaction(request.accountId, kind, request.cents));
+        }
+        BatchResult result = accountList.applyBatch(batch);
+        for (BatchResult.Failure failure : result.getFailures()) {
+            int k = requestOf[failure.getPosition()];
+            if (failure.getReason() == BatchResult.FailureReason.Overdraw) {
+                status[k] = BinaryProtocol.Status.Overdraw;
+                shortfall[k] = failure.getShortfallCents();
+            } else {
+                status[k] = BinaryProtocol.Status.UnknownAccount;
+            }
+        }
+        for (int k = 0; k < run.size(); k++) {
+            out.write(run.get(k).correlationId, status[k], shortfall[k]);
+        }
+    }
+
+    /**
+     * Submits requests to the engine and writes their responses in order once they complete.
+     * A transfer is only submitted after everything before it has completed, and nothing
+     * after it is submitted until it has.
+     *
+     * @param requests The requests.
+     * @param out Where responses are written.
+     */
+    private void submitAll(List<BinaryProtocol.Request> requests, ResponseWriter out) {
+        List<CompletableFuture<Long>> pending = new ArrayList<>(requests.size());
+        int answered = 0;
+        for (BinaryProtocol.Request request : requests) {
+            if (request.op == BinaryProtocol.Op.Transfer) {
+                answered = answer(requests, pending, answered, out);
+            }
+            pending.add(submit(request));
+            if (request.op == BinaryProtocol.Op.Transfer) {
+                answered = answer(requests, pending, answered, out);
+            }
+        }
+        answer(requests, pending, answered, out);
+    }
+
+    /**
+     * Submits one request to the engine.
+     *
+     * @param request The request.
+     * @return A future for the balance for a lookup, the shortfall for a withdrawal or
+     *         transfer, zero for a deposit, or {@code null} if the request is malformed.
+     */
+    private CompletableFuture<Long> submit(BinaryProtocol.Request request) {
+        if (request.op == BinaryProtocol.Op.Get) {
+            return engine.balance(request.accountId);
+        }
+        if (request.cents <= 0 || isSelfTransfer(request)) {
+            return null;
+        }
+        if (request.op == BinaryProtocol.Op.Deposit) {
+            return engine.deposit(request.accountId, request.cents).thenApply(balance -> 0L);
+        } else if (request.op == BinaryProtocol.Op.Withdraw) {
+            return engine.withdraw(request.accountId, request.cents);
+        } else if (request.op == BinaryProtocol.Op.Transfer) {
+            return engine.transfer(request.accountId, request.toAccountId, request.cents);
+        }
+        return null;
+    }
+
+    /**
+     * Waits for the submitted requests that have not been answered yet and writes their
+     * responses.
+     *
+     * @param requests The requests.
+     * @param pending The futures of the submitted requests, in request order.
+     * @param answered The number of requests already answered.
+     * @param out Where responses are written.
+     * @return The number of requests answered, which is the number submitted.
+     */
+    private int answer(List<BinaryProtocol.Request> requests, List<CompletableFuture<Long>> pending, int answered,
+            ResponseWriter out) {
+        for (int k = answered; k < pending.size(); k++) {
+            BinaryProtocol.Request request = requests.get(k);
+            CompletableFuture<Long> future = pending.get(k);
+            if (future == null) {
+                out.write(request.correlationId, BinaryProtocol.Status.BadRequest, 0);
+                continue;
+            }
+            try {
+                long value = future.join();
+                if (request.op != BinaryProtocol.Op.Get && value > 0) {
+                    out.write(request.correlationId, BinaryProtocol.Status.Overdraw, value);
+                } else {
+                    out.write(request.correlationId, BinaryProtocol.Status.Ok, value);
+                }
+            } catch (CompletionException e) {
+                out.write(request.correlationId, e.getCause() instanceof IllegalArgumentException
+                        ? BinaryProtocol.Status.UnknownAccount : BinaryProtocol.Status.BadRequest, 0);
+            }
+        }
+        return pending.size();
+    }
+
+    /**
+     * Checks whether a request is a transfer from an account to itself, which is malformed
+     * rather than a transfer involving an unknown account.
+     *
+     * @param request The request.
+     * @return {@code true} if the request transfers within one account.
+     */
+    private static boolean isSelfTransfer(BinaryProtocol.Request request) {
+        return request.op == BinaryProtocol.Op.Transfer && request.accountId.equals(request.toAccountId);
+    }
+
+    /**
+     * Applies a single transfer, lookup, or malformed request.
+     *
+     * @param request The request.
+     * @param out Where the response is written.
+     */
+    private void applyOne(BinaryProtocol.Request request, ResponseWriter out) {
+        if (request.op == BinaryProtocol.Op.Get) {
+            Account account = accountList.findById(request.accountId);
+            if (account == null) {
+                out.write(request.correlationId, BinaryProtocol.Status.UnknownAccount, 0);
+            } else {
+                out.write(request.correlationId, BinaryProtocol.Status.Ok, account.getBalanceCents());
+            }
+        } else if (request.op == BinaryProtocol.Op.Transfer && request.cents > 0 && !isSelfTransfer(request)) {
+            try {
+                accountList.transfer(request.accountId, request.toAccountId,
+                        BigDecimal.valueOf(request.cents, Account.SCALE));
+                out.write(request.correlationId, BinaryProtocol.Status.Ok, 0);
+            } catch (OverdrawException e) {
+                out.write(request.correlationId, BinaryProtocol.Status.Overdraw, Account.toCents(e.getOverdraftAmount()));
+            } catch (IllegalArgumentException e) {
+                out.write(request.correlationId, BinaryProtocol.Status.UnknownAccount, 0);
+            }
+        } else {
+            out.write(request.correlationId, BinaryProtocol.Status.BadRequest, 0);
+        }
+    }
+
+    /**
+     * Accumulates responses in fixed-size chunks that are reused across writes on one
+     * connection and then handed to a gathering write.
+     */
+    private static final class ResponseWriter {
+        private final List<ByteBuffer> chunks;
+        private int used;
+
+        ResponseWriter(List<ByteBuffer> chunks) {
+            this.chunks = chunks;
+        }
+
+        void write(long correlationId, BinaryProtocol.Status status, long value) {
+            if (used == 0 || chunks.get(used - 1).remaining() < BinaryProtocol.RESPONSE_SIZE) {
+                if (used == chunks.size()) {
+                    chunks.add(ByteBuffer.allocateDirect(RESPONSE_CHUNK_SIZE));
+                }
+                chunks.get(used++).clear();
+            }
+            BinaryProtocol.writeResponse(chunks.get(used - 1), correlationId, status, value);
+        }
+
+        ByteBuffer[] finish() {
+            ByteBuffer[] pending = new ByteBuffer[used];
+            for (int k = 0; k < used; k++) {
+                pending[k] = chunks.get(k).flip();
+            }
+            return pending;
+        }
+    }
+
+    /**
+     * Stops accepting connections and closes every open one.
+     *
+     * @throws IOException If the server channel cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverChannel.close();
+        for (SocketChannel channel : connections) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Closing anyway
+            }
+        }
+        try {
+            acceptor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package acctMgr.server;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Frame layout of the binary account protocol. All integers are big-endian.
+ * <p>
+ * A request frame is an {@code int} length of the rest of the frame, a {@code long}
+ * correlation ID chosen by the client, a {@code byte} operation code, and the operands:
+ * <pre>
+ * Deposit, Withdraw   id, long cents
+ * Transfer            fromId, toId, long cents
+ * Get                 id
+ * </pre>
+ * An ID is a {@code short} byte count followed by UTF-8 bytes.
+ * <p>
+ * A response frame is always {@value #RESPONSE_SIZE} bytes: an {@code int} length (13),
+ * the {@code long} correlation ID of the request, a {@code byte} status, and a
+ * {@code long} value. The value is the balance in cents for a successful Get, the
+ * shortfall in cents for Overdraw, and zero otherwise. The server answers the requests of
+ * a connection in the order they were sent; clients still match responses by correlation
+ * ID, so that many requests can be outstanding at once.
+ */
+public final class BinaryProtocol {
+    /**
+     * Size of a response frame, including its length field.
+     */
+    public static final int RESPONSE_SIZE = 4 + 8 + 1 + 8;
+
+    /**
+     * Largest request frame accepted, excluding its length field.
+     */
+    public static final int MAX_REQUEST_SIZE = 4096;
+
+    /**
+     * Request operations.
+     */
+    public enum Op {
+        Deposit, Withdraw, Transfer, Get;
+
+        private static final Op[] VALUES = values();
+
+        /**
+         * Returns the wire code of the operation.
+         *
+         * @return The operation code.
+         */
+        public byte code() {
+            return (byte) (ordinal() + 1);
+        }
+
+        /**
+         * Returns the operation with a wire code.
+         *
+         * @param code The operation code.
+         * @return The operation, or {@code null} if the code is unknown.
+         */
+        static Op fromCode(byte code) {
+            return code >= 1 && code <= VALUES.length ? VALUES[code - 1] : null;
+        }
+    }
+
+    /**
+     * Response statuses.
+     */
+    public enum Status {
+        Ok, Overdraw, UnknownAccount, BadRequest;
+
+        private static final Status[] VALUES = values();
+
+        /**
+         * Returns the status with a wire code.
+         *
+         * @param code The status code.
+         * @return The status.
+         */
+        static Status fromCode(byte code) {
+            return code >= 0 && code < VALUES.length ? VALUES[code] : BadRequest;
+        }
+    }
+
+    /**
+     * A decoded request.
+     */
+    static final class Request {
+        final long correlationId;
+        final Op op;
+        final String accountId;
+        final String toAccountId;
+        final long cents;
+
+        Request(long correlationId, Op op, String accountId, String toAccountId, long cents) {
+            this.correlationId = correlationId;
+            this.op = op;
+            this.accountId = accountId;
+            this.toAccountId = toAccountId;
+            this.cents = cents;
+        }
+    }
+
+    private BinaryProtocol() {
+    }
+
+    /**
+     * Writes a request frame.
+     *
+     * @param buffer The buffer to write to.
+     * @param correlationId The correlation ID.
+     * @param op The operation.
+     * @param accountId The account, or the source account of a transfer.
+     * @param toAccountId The target account of a transfer, otherwise {@code null}.
+     * @param cents The amount in cents; ignored for Get.
+     * @return {@code false} if the buffer has no room, in which case nothing is written.
+     */
+    static boolean writeRequest(ByteBuffer buffer, long correlationId, Op op, String accountId,
+                                String toAccountId, long cents) {
+        byte[] id = accountId.getBytes(StandardCharsets.UTF_8);
+        byte[] to = toAccountId == null ? null : toAccountId.getBytes(StandardCharsets.UTF_8);
+        int length = 8 + 1 + 2 + id.length + (to == null ? 0 : 2 + to.length) + (op == Op.Get ? 0 : 8);
+        if (length > MAX_REQUEST_SIZE) {
+            throw new IllegalArgumentException("Account ID too long");
+        }
+        if (buffer.remaining() < 4 + length) {
+            return false;
+        }
+        buffer.putInt(length).putLong(correlationId).put(op.code());
+        buffer.putShort((short) id.length).put(id);
+        if (to != null) {
+            buffer.putShort((short) to.length).put(to);
+        }
+        if (op != Op.Get) {
+            buffer.putLong(cents);
+        }
+        return true;
+    }
+
+    /**
+     * Reads one request frame if the buffer holds a complete one.
+     *
+     * @param buffer The buffer to read from, in read mode.
+     * @return The request; {@code null} if the frame is incomplete, in which case the
+     *         buffer position is unchanged.
+     * @throws IllegalStateException If the frame is malformed; the connection should be closed.
+     */
+    static Request readRequest(ByteBuffer buffer) {
+        if (buffer.remaining() < 4) {
+            return null;
+        }
+        int start = buffer.position();
+        int length = buffer.getInt(start);
+        if (length < 9 || length > MAX_REQUEST_SIZE) {
+            throw new IllegalStateException("Bad frame length: " + length);
+        }
+        if (buffer.remaining() < 4 + length) {
+            return null;
+        }
+        ByteBuffer frame = buffer.slice(start + 4, length);
+        buffer.position(start + 4 + length);
+        long correlationId = frame.getLong();
+        Op op = Op.fromCode(frame.get());
+        try {
+            if (op == null) {
+                return new Request(correlationId, null, null, null, 0);
+            }
+            String id = readId(frame);
+            String to = op == Op.Transfer ? readId(frame) : null;
+            long cents = op == Op.Get ? 0 : frame.getLong();
+            return new Request(correlationId, op, id, to, cents);
+        } catch (BufferUnderflowException e) {
+            return new Request(correlationId, null, null, null, 0);
+        }
+    }
+
+    /**
+     * Reads a length-prefixed UTF-8 account ID.
+     *
+     * @param frame The frame being read.
+     * @return The ID.
+     */
+    private static String readId(ByteBuffer frame) {
+        int length = frame.getShort() & 0xFFFF;
+        if (length > frame.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String id = new String(frame.array(), frame.arrayOffset() + frame.position(), length, StandardCharsets.UTF_8);
+        frame.position(frame.position() + length);
+        return id;
+    }
+
+    /**
+     * Writes a response frame.
+     *
+     * @param buffer The buffer to write to; must have {@link #RESPONSE_SIZE} bytes free.
+     * @param correlationId The correlation ID of the request.
+     * @param status The outcome.
+     * @param value The balance or shortfall in cents, or zero.
+     */
+    static void writeResponse(ByteBuffer buffer, long correlationId, Status status, long value) {
+        buffer.putInt(RESPONSE_SIZE - 4).putLong(correlationId).put((byte) status.ordinal()).putLong(value);
+    }
+}
@@ -0,0 +1,115 @@
+package acctMgr.server;
+
+import acctMgr.controller.AccountServiceController;
+import acctMgr.controller.Controller;
+import acctMgr.model.Model;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * The view of one client connection: replies and errors are written to the socket as
+ * lines of text. Output is buffered and flushed once per request by the connection loop.
+ */
+public class ConnectionView implements AccountServiceController.ReplyView {
+    private final Writer out;
+    private Controller controller;
+    private Model model;
+
+    /**
+     * Constructs a ConnectionView writing to the given stream.
+     *
+     * @param out The buffered writer of the client socket.
+     */
+    public ConnectionView(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes one reply line.
+     *
+     * @param line The line, without a line separator.
+     */
+    @Override
+    public void reply(String line) {
+        try {
+            out.write(line);
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes an error reply.
+     *
+     * @param errorMessage The error message.
+     */
+    @Override
+    public void showErrorMessage(String errorMessage) {
+        reply("ERR " + errorMessage);
+    }
+
+    /**
+     * Sends any buffered replies to the client.
+     *
+     * @throws IOException If the client cannot be written to.
+     */
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Returns the controller associated with this view.
+     *
+     * @return The associated controller.
+     */
+    @Override
+    public Controller getController() {
+        return controller;
+    }
+
+    /**
+     * Sets the controller for this view.
+     *
+     * @param aController The controller to set.
+     */
+    @Override
+    public void setController(Controller aController) {
+        controller = aController;
+    }
+
+    /**
+     * Returns the model associated with this view.
+     *
+     * @return The associated model.
+     */
+    @Override
+    public Model getModel() {
+        return model;
+    }
+
+    /**
+     * Sets the model for this view.
+     *
+     * @param aModel The model to set.
+     */
+    @Override
+    public void setModel(Model aModel) {
+        model = aModel;
+    }
+
+    /**
+     * Does nothing: the client asks for state explicitly.
+     */
+    @Override
+    public void refreshView() {
+    }
+
+    /**
+     * Does nothing: a connection needs no setup beyond its stream.
+     */
+    @Override
+    public void initialize() {
+    }
+}
@@ -0,0 +1,69 @@
+package acctMgr.server;
+
+import acctMgr.model.AccountList;
+import acctMgr.model.ShardedAccountEngine;
+import acctMgr.model.SnapshotStore;
+import acctMgr.model.TransactionJournal;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Runs the account manager as a headless server. Accounts are restored from the journal
+ * and snapshots exactly as the desktop application does, then served over TCP: the text
+ * protocol on the given port and the pipelined binary protocol on the port after it.
+ * <p>
+ * Usage: {@code ServerMain [port] [accountFile] [bindAddress] [shards]}. The defaults are
+ * port 7070, {@code testLoadFile.txt}, the loopback interface, and no shards. With a shard
+ * count, text-protocol balance changes go through a {@link ShardedAccountEngine} with that
+ * many workers.
+ */
+public class ServerMain {
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7070;
+        String filePath = args.length > 1 ? args[1] : "testLoadFile.txt";
+        InetAddress bindAddress = args.length > 2 ? InetAddress.getByName(args[2]) : InetAddress.getLoopbackAddress();
+        int shards = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+
+        AccountList accountList = new AccountList();
+        Path journalPath = Paths.get("journal.log");
+        SnapshotStore snapshots = new SnapshotStore(Paths.get("snapshots"));
+        // A journal without a snapshot is left over from a first start that never finished
+        // its baseline, so only a snapshot means there is state to restore
+        if (snapshots.loadLatest() != null) {
+            long sequence = accountList.restore(snapshots, journalPath);
+            System.out.println("Accounts restored up to journal record " + sequence + ".");
+            accountList.attachJournal(TransactionJournal.open(journalPath, TransactionJournal.SyncPolicy.timeWindow(2)));
+        } else {
+            accountList.loadAccounts(filePath);
+            System.out.println("Accounts loaded from file: " + filePath);
+            accountList.attachJournal(TransactionJournal.open(journalPath, TransactionJournal.SyncPolicy.timeWindow(2)));
+            snapshots.take(accountList);
+        }
+        snapshots.startPeriodic(accountList, 60);
+
+        ShardedAccountEngine engine = shards > 0 ? new ShardedAccountEngine(accountList, shards) : null;
+        AccountServer server = new AccountServer(accountList, new InetSocketAddress(bindAddress, port), engine);
+        BinaryAccountServer binaryServer = new BinaryAccountServer(accountList, new InetSocketAddress(bindAddress, port + 1), engine);
+        System.out.println("Serving " + accountList.size() + " accounts on " + bindAddress.getHostAddress() + ":" + server.getPort()
+                + " (binary protocol on port " + binaryServer.getPort() + ")");
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+                binaryServer.close();
+                if (engine != null) {
+                    engine.close();
+                }
+                snapshots.take(accountList);
+                snapshots.close();
+                accountList.getJournal().close();
+            } catch (IOException e) {
+                System.err.println("Error during shutdown: " + e.getMessage());
+            }
+        }, "account-server-shutdown"));
+    }
+}
@@ -3,12 +3,23 @@ package acctMgr.test;
 import static org.junit.Assert.*;
 import org.junit.Before;
 import org.junit.Test;
+import acctMgr.controller.AccountViewController;
 import acctMgr.model.*;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * JUnit test class for the AccountList class.
@@ -93,4 +104,458 @@ public class AccountListTest {
             }
         }
     }
+
+    /**
+     * Tests that accounts can be found by ID, are kept sorted by ID and can be removed.
+     */
+    @Test
+    public void testFindByIdAndRemove() {
+        Account account1 = new Account("Jane Smith", "67890", BigDecimal.valueOf(200.00));
+        Account account2 = new Account("John Doe", "12345", BigDecimal.valueOf(100.00));
+        accountList.addAccount(account1);
+        accountList.addAccount(account2);
+
+        assertSame(account1, accountList.findById("67890"));
+        assertSame(account2, accountList.findById("12345"));
+        assertEquals("Accounts should be sorted by ID", "12345", accountList.getAccounts().get(0).getId());
+
+        accountList.removeAccount(account2);
+        assertNull(accountList.findById("12345"));
+        assertEquals(1, accountList.size());
+        assertEquals(1, accountList.getAccounts().size());
+    }
+
+    /**
+     * Tests that concurrent transfers in both directions between two accounts neither
+     * deadlock nor lose money, and that each transfer emits one transfer event.
+     *
+     * @throws InterruptedException if the test is interrupted while waiting for the workers
+     */
+    @Test
+    public void testConcurrentTransfers() throws InterruptedException {
+        Account account1 = new Account("John Doe", "12345", BigDecimal.valueOf(10000.00));
+        Account account2 = new Account("Jane Smith", "67890", BigDecimal.valueOf(10000.00));
+        accountList.addAccount(account1);
+        accountList.addAccount(account2);
+        AtomicInteger transferEvents = new AtomicInteger();
+        accountList.addModelListener(event -> {
+            if (event.getKind() == ModelEvent.EventKind.AmountTransferredUpdate) {
+                transferEvents.incrementAndGet();
+            }
+        });
+
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            final boolean forward = t % 2 == 0;
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    try {
+                        accountList.transfer(forward ? "12345" : "67890", forward ? "67890" : "12345",
+                                new BigDecimal("1.00"));
+                    } catch (OverdrawException e) {
+                        fail("Unexpected overdraw: " + e.getMessage());
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(new BigDecimal("10000.00"), account1.getBalance());
+        assertEquals(new BigDecimal("10000.00"), account2.getBalance());
+        accountList.flushEvents();
+        assertEquals(8_000, transferEvents.get());
+    }
+
+    /**
+     * Tests that a transfer exceeding the source balance leaves both accounts unchanged.
+     */
+    @Test
+    public void testTransferOverdraw() {
+        Account account1 = new Account("John Doe", "12345", BigDecimal.valueOf(100.00));
+        Account account2 = new Account("Jane Smith", "67890", BigDecimal.valueOf(200.00));
+        accountList.addAccount(account1);
+        accountList.addAccount(account2);
+
+        try {
+            accountList.transfer("12345", "67890", new BigDecimal("150.00"));
+            fail("Expected an OverdrawException");
+        } catch (OverdrawException e) {
+            assertEquals(new BigDecimal("50.00"), e.getOverdraftAmount());
+        }
+        assertEquals(new BigDecimal("100.00"), account1.getBalance());
+        assertEquals(new BigDecimal("200.00"), account2.getBalance());
+    }
+
+    /**
+     * Tests that a transfer of a zero or negative amount is refused and changes nothing.
+     *
+     * @throws OverdrawException if the transfer is wrongly treated as an overdraw
+     */
+    @Test
+    public void testTransferNonPositiveRejected() throws OverdrawException {
+        Account account1 = new Account("John Doe", "12345", BigDecimal.valueOf(100.00));
+        Account account2 = new Account("Jane Smith", "67890", BigDecimal.valueOf(200.00));
+        accountList.addAccount(account1);
+        accountList.addAccount(account2);
+
+        for (String amount : new String[] {"0.00", "-500.00"}) {
+            try {
+                accountList.transfer("12345", "67890", new BigDecimal(amount));
+                fail("Expected a rejected amount: " + amount);
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+        }
+        assertEquals(new BigDecimal("100.00"), account1.getBalance());
+        assertEquals(new BigDecimal("200.00"), account2.getBalance());
+    }
+
+    /**
+     * Tests that a batch applies valid postings, reports failing ones without throwing,
+     * and sends one event per touched account.
+     */
+    @Test
+    public void testApplyBatch() {
+        Account account1 = new Account("John Doe", "12345", BigDecimal.valueOf(100.00));
+        Account account2 = new Account("Jane Smith", "67890", BigDecimal.valueOf(200.00));
+        accountList.addAccount(account1);
+        accountList.addAccount(account2);
+        AtomicInteger events = new AtomicInteger();
+        accountList.addModelListener(event -> events.incrementAndGet());
+
+        List<Transaction> batch = new ArrayList<>();
+        batch.add(Transaction.deposit("12345", new BigDecimal("10.00")));
+        batch.add(Transaction.withdraw("67890", new BigDecimal("50.00")));
+        batch.add(Transaction.withdraw("12345", new BigDecimal("500.00")));
+        batch.add(Transaction.deposit("99999", new BigDecimal("1.00")));
+        batch.add(Transaction.withdraw("12345", new BigDecimal("110.00")));
+        BatchResult result = accountList.applyBatch(batch);
+
+        assertEquals(3, result.getAppliedCount());
+        assertEquals(2, result.getFailures().size());
+        assertEquals(2, result.getFailures().get(0).getPosition());
+        assertEquals(BatchResult.FailureReason.Overdraw, result.getFailures().get(0).getReason());
+        assertEquals(new BigDecimal("390.00"), result.getFailures().get(0).getShortfall());
+        assertEquals(BatchResult.FailureReason.UnknownAccount, result.getFailures().get(1).getReason());
+        assertEquals(new BigDecimal("0.00"), account1.getBalance());
+        assertEquals(new BigDecimal("150.00"), account2.getBalance());
+        accountList.flushEvents();
+        assertEquals("One event per touched account", 2, events.get());
+    }
+
+    /**
+     * Tests that postings with a zero or negative amount are rejected when they are built.
+     */
+    @Test
+    public void testNonPositiveTransactionRejected() {
+        for (String amount : new String[] {"0.00", "-5.00"}) {
+            try {
+                Transaction.deposit("12345", new BigDecimal(amount));
+                fail("Expected a rejected amount: " + amount);
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+        }
+    }
+
+    /**
+     * Tests that a per-account view controller is woken only by its own account, and that a
+     * range subscription does not make accounts outside the range observed.
+     */
+    @Test
+    public void testAccountControllerSubscribesByAccount() {
+        Account mine = new Account("John Doe", "12345", BigDecimal.ZERO);
+        Account other = new Account("Jane Smith", "67890", BigDecimal.ZERO);
+        accountList.addAccount(mine);
+        accountList.addAccount(other);
+        AtomicInteger updates = new AtomicInteger();
+        AccountViewController controller = new AccountViewController(null, mine, accountList, null) {
+            @Override
+            public void updateView() {
+                updates.incrementAndGet();
+            }
+        };
+
+        other.deposit(new BigDecimal("1.00"));
+        accountList.flushEvents();
+        assertEquals("Other accounts must not wake the view", 0, updates.get());
+        mine.deposit(new BigDecimal("1.00"));
+        accountList.flushEvents();
+        assertEquals(1, updates.get());
+
+        controller.setModel(null);
+        EventDispatcher dispatcher = new EventDispatcher();
+        dispatcher.subscribeRange("10000", "20000", event -> { });
+        assertTrue(dispatcher.isObserved("12345"));
+        assertFalse(dispatcher.isObserved("67890"));
+    }
+
+    /**
+     * Tests that a listener stuck on one account list does not hold up the events of another.
+     *
+     * @throws Exception if waiting fails
+     */
+    @Test
+    public void testDispatchersDoNotShareEventThread() throws Exception {
+        AccountList other = new AccountList();
+        Account stuckAccount = new Account("John Doe", "12345", BigDecimal.ZERO);
+        Account freeAccount = new Account("Jane Smith", "67890", BigDecimal.ZERO);
+        accountList.addAccount(stuckAccount);
+        other.addAccount(freeAccount);
+        CountDownLatch release = new CountDownLatch(1);
+        accountList.addModelListener(event -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        CountDownLatch delivered = new CountDownLatch(1);
+        other.addModelListener(event -> delivered.countDown());
+
+        try {
+            stuckAccount.deposit(new BigDecimal("1.00"));
+            accountList.updateAccountViews(stuckAccount);
+            freeAccount.deposit(new BigDecimal("1.00"));
+            other.updateAccountViews(freeAccount);
+            assertTrue("Events of the other list should still arrive", delivered.await(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    /**
+     * Tests that rapid balance updates for one account are merged and that listeners see the
+     * latest balance.
+     */
+    @Test
+    public void testBalanceUpdatesCoalesced() {
+        Account account = new Account("John Doe", "12345", BigDecimal.ZERO);
+        accountList.addAccount(account);
+        List<ModelEvent> received = new CopyOnWriteArrayList<>();
+        accountList.addModelListener(received::add);
+
+        for (int i = 0; i < 1_000; i++) {
+            account.deposit(new BigDecimal("1.00"));
+            accountList.updateAccountViews(account);
+        }
+        accountList.flushEvents();
+
+        assertTrue("Updates should be merged", received.size() < 1_000);
+        ModelEvent last = received.get(received.size() - 1);
+        assertEquals("12345", last.getAccountId());
+        assertEquals(new BigDecimal("1000.00"), last.getBalance());
+    }
+
+    /**
+     * Tests that account subscribers hear only about their own accounts, with the net change.
+     *
+     * @throws OverdrawException if the transfer unexpectedly overdraws
+     */
+    @Test
+    public void testSubscribeRoutesByAccount() throws OverdrawException {
+        accountList.addAccount(new Account("John Doe", "12345", new BigDecimal("100.00")));
+        accountList.addAccount(new Account("Jane Smith", "67890", new BigDecimal("100.00")));
+        accountList.addAccount(new Account("Jim Beam", "99999", new BigDecimal("100.00")));
+        List<ModelEvent> johnEvents = new CopyOnWriteArrayList<>();
+        List<ModelEvent> rangeEvents = new CopyOnWriteArrayList<>();
+        accountList.subscribe("12345", event -> {
+            if (event.getKind() == ModelEvent.EventKind.BalanceUpdate) {
+                johnEvents.add(event);
+            }
+        });
+        accountList.subscribeRange("60000", "70000", rangeEvents::add);
+
+        accountList.findById("99999").deposit(new BigDecimal("5.00"));
+        accountList.transfer("12345", "67890", new BigDecimal("30.00"));
+        accountList.flushEvents();
+
+        assertEquals(1, johnEvents.size());
+        assertEquals("12345", johnEvents.get(0).getAccountId());
+        assertEquals(new BigDecimal("70.00"), johnEvents.get(0).getBalance());
+        assertEquals(new BigDecimal("-30.00"), johnEvents.get(0).getDelta());
+        assertEquals(1, rangeEvents.size());
+        assertEquals(new BigDecimal("30.00"), rangeEvents.get(0).getDelta());
+    }
+
+    /**
+     * Tests loading a file large enough to be parsed in several chunks, including
+     * malformed lines that are reported rather than loaded.
+     *
+     * @throws IOException if an I/O error occurs during the test.
+     */
+    @Test
+    public void testLoadLargeFileInChunks() throws IOException {
+        Path file = Files.createTempFile("accounts", ".txt");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+                for (int i = 0; i < 200_000; i++) {
+                    writer.write("Holder " + i + "," + String.format("%08d", i) + "," + (i % 1000) + "." + (i % 10));
+                    writer.write(i % 3 == 0 ? "\r\n" : "\n");
+                    if (i % 50_000 == 0) {
+                        writer.write("no commas here\n");
+                        writer.write("Bad Amount," + i + "x,12.3.4\n");
+                        writer.write("\n");
+                    }
+                }
+                writer.write("Last Holder , 99999999 , 1.2345");
+            }
+
+            LoadReport report = accountList.loadAccounts(file.toString());
+
+            assertEquals(200_001, report.getAccountCount());
+            assertEquals(200_001, accountList.size());
+            assertEquals(8, report.getErrors().size());
+            assertEquals("Invalid line format (missing parts)", report.getErrors().get(0).getReason());
+            assertEquals("Invalid balance format", report.getErrors().get(1).getReason());
+            assertEquals(new BigDecimal("123.30"), accountList.findById("00123123").getBalance());
+            assertEquals("Last Holder", accountList.findById("99999999").getName());
+            assertEquals(new BigDecimal("1.23"), accountList.findById("99999999").getBalance());
+            assertEquals("00000000", accountList.getAccounts().get(0).getId());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Tests currency conversion in both directions, bulk conversion, and swapping rates.
+     */
+    @Test
+    public void testCurrencyConversion() {
+        assertEquals(new BigDecimal("79.00"), accountList.convertUsdToEur(new BigDecimal("100.00")));
+        assertEquals(new BigDecimal("9410.00"), accountList.convertUsdToYen(new BigDecimal("100.00")));
+        assertEquals(new BigDecimal("100.00"), accountList.convertEurToUsd(new BigDecimal("79.00")));
+        assertEquals(new BigDecimal("1.27"), accountList.convertEurToUsd(BigDecimal.ONE));
+
+        CurrencyEngine engine = CurrencyEngine.getDefault();
+        for (long cents : new long[] {0, 1, 99, 12_345, -12_345, 987_654_321_012L, Long.MAX_VALUE / 200}) {
+            for (CurrencyUnit to : CurrencyUnit.values()) {
+                assertEquals(engine.convert(BigDecimal.valueOf(cents, 2), CurrencyUnit.USD, to).unscaledValue().longValueExact(),
+                        engine.convertCents(cents, CurrencyUnit.USD, to));
+            }
+        }
+        // Cross rates such as EUR to JPY are not exact at nine places; the fast path must not drift
+        SplittableRandom random = new SplittableRandom(17);
+        for (int i = 0; i < 100_000; i++) {
+            long cents = random.nextLong(-10_000_000_000_000L, 10_000_000_000_000L);
+            for (CurrencyUnit from : CurrencyUnit.values()) {
+                for (CurrencyUnit to : CurrencyUnit.values()) {
+                    assertEquals(engine.convert(BigDecimal.valueOf(cents, 2), from, to).unscaledValue().longValueExact(),
+                            engine.convertCents(cents, from, to));
+                }
+            }
+        }
+
+        accountList.addAccount(new Account("John Doe", "12345", new BigDecimal("10.00")));
+        accountList.addAccount(new Account("Jane Smith", "67890", new BigDecimal("20.00")));
+        CurrencyEngine.RateTable original = engine.getRates();
+        try {
+            engine.setRates(CurrencyEngine.RateTable.fromUsd(Map.of(CurrencyUnit.USD, BigDecimal.ONE,
+                    CurrencyUnit.EUR, new BigDecimal("0.5"), CurrencyUnit.JPY, new BigDecimal("100"))));
+            Map<String, BigDecimal> inEur = accountList.convertBalances(CurrencyUnit.EUR);
+            assertEquals(new BigDecimal("5.00"), inEur.get("12345"));
+            assertEquals(new BigDecimal("10.00"), inEur.get("67890"));
+        } finally {
+            engine.setRates(original);
+        }
+    }
+
+    /**
+     * Tests that the aggregates follow every kind of change without rescanning.
+     *
+     * @throws OverdrawException if an operation unexpectedly overdraws
+     */
+    @Test
+    public void testAggregates() throws OverdrawException {
+        Account john = new Account("John Doe", "12345", new BigDecimal("100.00"));
+        Account jane = new Account("Jane Smith", "67890", new BigDecimal("50.00"));
+        accountList.addAccount(john);
+        accountList.addAccount(jane);
+        AccountAggregates aggregates = accountList.getAggregates();
+        assertEquals(2, aggregates.getCount());
+        assertEquals(15_000, aggregates.getTotalCents());
+        assertEquals(5_000, aggregates.getMinCents());
+        assertEquals(10_000, aggregates.getMaxCents());
+
+        john.deposit(new BigDecimal("25.00"));
+        jane.withdraw(new BigDecimal("10.00"));
+        accountList.transfer("12345", "67890", new BigDecimal("100.00"));
+        accountList.applyBatch(List.of(Transaction.deposit("12345", new BigDecimal("1.00"))));
+        assertEquals(16_600, aggregates.getTotalCents());
+        assertEquals(2_600, aggregates.getMinCents());
+        assertEquals(14_000, aggregates.getMaxCents());
+        assertEquals(new BigDecimal("131.14"), aggregates.getTotal(CurrencyUnit.EUR));
+
+        accountList.removeAccount(jane);
+        assertEquals(1, aggregates.getCount());
+        assertEquals(2_600, aggregates.getTotalCents());
+        assertEquals(2_600, aggregates.getMaxCents());
+
+        // Adding the same account again must not count it twice
+        accountList.addAccount(john);
+        assertEquals(1, aggregates.getCount());
+        assertEquals(2_600, aggregates.getTotalCents());
+    }
+
+    /**
+     * Tests that the extremes match the balances after concurrent deposits and withdrawals
+     * on the same accounts.
+     *
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    @Test
+    public void testAggregateExtremesUnderConcurrency() throws InterruptedException {
+        Account[] accounts = new Account[4];
+        for (int i = 0; i < accounts.length; i++) {
+            accounts[i] = new Account("Holder " + i, "ID" + i, 10_000);
+            accountList.addAccount(accounts[i]);
+        }
+        Thread[] workers = new Thread[4];
+        for (int t = 0; t < workers.length; t++) {
+            int seed = t;
+            workers[t] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                for (int i = 0; i < 20_000; i++) {
+                    Account account = accounts[random.nextInt(accounts.length)];
+                    long amount = 1 + random.nextInt(500);
+                    if (random.nextBoolean()) {
+                        account.depositCents(amount);
+                    } else {
+                        account.tryWithdrawCents(amount);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (Account account : accountList.getAccounts()) {
+            min = Math.min(min, account.getBalanceCents());
+            max = Math.max(max, account.getBalanceCents());
+        }
+        assertEquals(min, accountList.getAggregates().getMinCents());
+        assertEquals(max, accountList.getAggregates().getMaxCents());
+    }
+
+    /**
+     * Tests that concurrent random load on skewed accounts keeps the book consistent.
+     *
+     * @throws Exception if the harness cannot write its journal
+     */
+    @Test
+    public void testStressInvariants() throws Exception {
+        StressHarness.Report report = new StressHarness()
+                .accounts(50).threads(4).opsPerThread(2_000).skew(1.2).seed(7)
+                .run(Files.createTempDirectory("stress"));
+        assertEquals(8_000, report.getOperations());
+        assertEquals(8_000, report.getLatency().getCount());
+        assertTrue(report.getViolations().toString(), report.getViolations().isEmpty());
+    }
 }
@@ -0,0 +1,207 @@
+package acctMgr.test;
+
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import acctMgr.model.*;
+import acctMgr.server.AccountServer;
+import acctMgr.server.BinaryAccountClient;
+import acctMgr.server.BinaryAccountServer;
+import acctMgr.server.BinaryProtocol;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JUnit test class for the AccountServer, exercised over the loopback interface.
+ */
+public class AccountServerTest {
+    private AccountList accountList;
+    private AccountServer server;
+
+    /**
+     * Starts a server on a free port with two accounts.
+     *
+     * @throws IOException if the server cannot be started
+     */
+    @Before
+    public void setUp() throws IOException {
+        accountList = new AccountList();
+        accountList.addAccount(new Account("John Doe", "12345", new BigDecimal("100.00")));
+        accountList.addAccount(new Account("Jane Smith", "67890", new BigDecimal("50.00")));
+        server = new AccountServer(accountList, 0);
+    }
+
+    /**
+     * Stops the server.
+     *
+     * @throws IOException if the server cannot be closed
+     */
+    @After
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    /**
+     * A minimal blocking client for the text protocol.
+     */
+    private class Client implements AutoCloseable {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final PrintWriter out;
+
+        Client() throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+        }
+
+        String send(String command) throws IOException {
+            out.println(command);
+            return in.readLine();
+        }
+
+        String readLine() throws IOException {
+            return in.readLine();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    /**
+     * Tests every command and the error replies.
+     *
+     * @throws IOException if the connection fails
+     */
+    @Test
+    public void testCommands() throws IOException {
+        try (Client client = new Client()) {
+            assertEquals("OK 110.00", client.send("DEPOSIT 12345 10.00"));
+            assertEquals("OK 90.00", client.send("withdraw 12345 20"));
+            assertEquals("ERR OVERDRAW 910.00", client.send("WITHDRAW 12345 1000.00"));
+            assertEquals("OK", client.send("TRANSFER 12345 67890 40.00"));
+            assertEquals("OK 12345 50.00 John Doe", client.send("GET 12345"));
+            assertEquals("OK 2", client.send("LIST"));
+            assertEquals("12345 50.00 John Doe", client.readLine());
+            assertEquals("67890 90.00 Jane Smith", client.readLine());
+            assertTrue(client.send("GET 99999").startsWith("ERR"));
+            assertTrue(client.send("DEPOSIT 12345 -5").startsWith("ERR"));
+            assertTrue(client.send("DEPOSIT 12345 abc").startsWith("ERR"));
+            assertTrue(client.send("FROB").startsWith("ERR"));
+            assertEquals("BYE", client.send("QUIT"));
+        }
+    }
+
+    /**
+     * Tests many clients depositing concurrently, each on its own connection.
+     *
+     * @throws Exception if a client fails
+     */
+    @Test
+    public void testConcurrentClients() throws Exception {
+        int clients = 500;
+        int depositsPerClient = 20;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> results = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                results.add(executor.submit(() -> {
+                    try (Client client = new Client()) {
+                        for (int i = 0; i < depositsPerClient; i++) {
+                            assertTrue(client.send("DEPOSIT 67890 1.00").startsWith("OK"));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        }
+        assertEquals(new BigDecimal("10050.00"), accountList.findById("67890").getBalance());
+    }
+
+    /**
+     * Tests pipelining thousands of binary requests and matching responses by correlation ID.
+     *
+     * @throws Exception if the connection fails
+     */
+    @Test
+    public void testBinaryPipelining() throws Exception {
+        try (BinaryAccountServer binaryServer = new BinaryAccountServer(accountList, 0)) {
+            assertPipelining(binaryServer);
+        }
+    }
+
+    /**
+     * Tests the same pipelined requests when the binary server applies them through a
+     * sharded engine.
+     *
+     * @throws Exception if the connection fails
+     */
+    @Test
+    public void testBinaryPipeliningThroughEngine() throws Exception {
+        try (ShardedAccountEngine engine = new ShardedAccountEngine(accountList, 2);
+             BinaryAccountServer binaryServer = new BinaryAccountServer(accountList,
+                     new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), engine)) {
+            assertPipelining(binaryServer);
+        }
+    }
+
+    /**
+     * Pipelines deposits, a declined withdrawal, an unknown account, a transfer and a
+     * lookup, and checks every response and the resulting balance.
+     *
+     * @param binaryServer The server to send the requests to.
+     * @throws Exception if the connection fails
+     */
+    private void assertPipelining(BinaryAccountServer binaryServer) throws Exception {
+        try (BinaryAccountClient client = new BinaryAccountClient(
+                     new InetSocketAddress(InetAddress.getLoopbackAddress(), binaryServer.getPort()))) {
+            List<CompletableFuture<BinaryAccountClient.Response>> deposits = new ArrayList<>();
+            for (int i = 0; i < 10_000; i++) {
+                deposits.add(client.deposit("12345", 1));
+            }
+            CompletableFuture<BinaryAccountClient.Response> overdraw = client.withdraw("67890", 6_000);
+            CompletableFuture<BinaryAccountClient.Response> unknown = client.deposit("99999", 100);
+            CompletableFuture<BinaryAccountClient.Response> transfer = client.transfer("12345", "67890", 100);
+            CompletableFuture<BinaryAccountClient.Response> self = client.transfer("12345", "12345", 100);
+            CompletableFuture<BinaryAccountClient.Response> balance = client.get("67890");
+            try {
+                client.get("9".repeat(BinaryProtocol.MAX_REQUEST_SIZE));
+                fail("Expected an over-long ID to be rejected");
+            } catch (IllegalArgumentException e) {
+                // Expected; the request is not queued and later requests are unaffected
+            }
+            client.flush();
+
+            for (CompletableFuture<BinaryAccountClient.Response> deposit : deposits) {
+                assertEquals(BinaryProtocol.Status.Ok, deposit.get(10, TimeUnit.SECONDS).getStatus());
+            }
+            assertEquals(BinaryProtocol.Status.Overdraw, overdraw.get(10, TimeUnit.SECONDS).getStatus());
+            assertEquals(1_000, overdraw.get().getValue());
+            assertEquals(BinaryProtocol.Status.UnknownAccount, unknown.get(10, TimeUnit.SECONDS).getStatus());
+            assertEquals(BinaryProtocol.Status.Ok, transfer.get(10, TimeUnit.SECONDS).getStatus());
+            assertEquals(BinaryProtocol.Status.BadRequest, self.get(10, TimeUnit.SECONDS).getStatus());
+            assertEquals(5_100, balance.get(10, TimeUnit.SECONDS).getValue());
+        }
+        assertEquals(new BigDecimal("199.00"), accountList.findById("12345").getBalance());
+    }
+}
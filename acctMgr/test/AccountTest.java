@@ -3,10 +3,15 @@ package acctMgr.test;
 import static org.junit.Assert.*;
 import org.junit.Before;
 import org.junit.Test;
+import acctMgr.metrics.AccountMetrics;
 import acctMgr.model.*;
 
+import java.lang.management.ManagementFactory;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import javax.management.ObjectName;
 
 /**
  * JUnit test class for the Account class.
@@ -63,6 +68,17 @@ public class AccountTest {
         testAccount.withdraw(withdrawalAmount);
     }
 
+    /**
+     * Tests that tryWithdrawCents reports a decline as the shortfall and leaves the balance alone.
+     */
+    @Test
+    public void testTryWithdraw() {
+        assertEquals(5_000, testAccount.tryWithdrawCents(15_000));
+        assertEquals(10_000, testAccount.getBalanceCents());
+        assertEquals(0, testAccount.tryWithdrawCents(4_000));
+        assertEquals(6_000, testAccount.getBalanceCents());
+    }
+
     /**
      * Tests the getName method of the Account class.
      */
@@ -81,5 +97,104 @@ public class AccountTest {
         assertEquals("12345", testAccount.getId());
     }
 
-   
+    /**
+     * Tests that concurrent deposits and withdrawals on the same account do not lose updates.
+     *
+     * @throws InterruptedException if the test is interrupted while waiting for the workers
+     */
+    @Test
+    public void testConcurrentUpdates() throws InterruptedException {
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    testAccount.deposit(new BigDecimal("0.02"));
+                    try {
+                        testAccount.withdraw(new BigDecimal("0.01"));
+                    } catch (OverdrawException e) {
+                        fail("Unexpected overdraw: " + e.getMessage());
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        // 100.00 + 8 * 10,000 * 0.01
+        assertEquals(new BigDecimal("900.00"), testAccount.getBalance());
+    }
+
+    /**
+     * Tests that a removed listener is no longer notified.
+     */
+    @Test
+    public void testRemoveListener() {
+        List<Account> updates = new ArrayList<>();
+        AccountListener listener = updates::add;
+        testAccount.addListener(listener);
+        testAccount.deposit(BigDecimal.ONE);
+        testAccount.removeListener(listener);
+        testAccount.deposit(BigDecimal.ONE);
+
+        assertEquals(1, updates.size());
+    }
+
+    /**
+     * Tests that weakly held listeners are dropped once garbage collected.
+     *
+     * @throws InterruptedException if the test is interrupted while waiting for collection
+     */
+    @Test
+    public void testWeakListenersPruned() throws InterruptedException {
+        ListenerRegistry<AccountListener> registry = new ListenerRegistry<>();
+        AccountListener kept = account -> { };
+        registry.add(kept);
+        for (int i = 0; i < 1_000; i++) {
+            // A fresh object each time; a non-capturing lambda would be a cached singleton
+            registry.addWeak(new AccountListener() {
+                @Override
+                public void accountUpdated(Account account) {
+                }
+            });
+        }
+        for (int attempt = 0; attempt < 50 && registry.size() > 1; attempt++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+
+        assertEquals(1, registry.size());
+    }
+
+    /**
+     * Tests that operations are counted and that the metrics are visible over JMX.
+     *
+     * @throws Exception if the metrics cannot be read over JMX
+     */
+    @Test
+    public void testMetricsRecorded() throws Exception {
+        AccountMetrics metrics = AccountMetrics.get();
+        long deposits = metrics.getDeposits();
+        long withdrawals = metrics.getWithdrawals();
+        long overdraws = metrics.getOverdraws();
+
+        testAccount.deposit(BigDecimal.ONE);
+        testAccount.withdraw(BigDecimal.ONE);
+        try {
+            testAccount.withdraw(new BigDecimal("1000.00"));
+            fail("Expected an overdraw");
+        } catch (OverdrawException e) {
+            // expected
+        }
+
+        assertTrue(metrics.getDeposits() >= deposits + 1);
+        assertTrue(metrics.getWithdrawals() >= withdrawals + 1);
+        assertTrue(metrics.getOverdraws() >= overdraws + 1);
+        assertTrue(metrics.getDepositLatency().getP99Nanos() > 0);
+        Object viaJmx = ManagementFactory.getPlatformMBeanServer()
+                .getAttribute(new ObjectName(AccountMetrics.OBJECT_NAME), "Deposits");
+        assertTrue((Long) viaJmx >= deposits + 1);
+    }
 }
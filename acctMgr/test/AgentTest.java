@@ -0,0 +1,87 @@
+package acctMgr.test;
+
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import acctMgr.model.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JUnit test class for the Agent and AgentManager classes.
+ */
+public class AgentTest {
+    private AgentManager manager;
+    private Account account;
+
+    /**
+     * Sets up the test fixture.
+     */
+    @Before
+    public void setUp() {
+        manager = new AgentManager();
+        account = new Account("Maitland Huffman", "123", BigDecimal.ZERO);
+    }
+
+    /**
+     * Stops any agents left running.
+     */
+    @After
+    public void tearDown() {
+        manager.close();
+    }
+
+    /**
+     * Tests that a withdraw agent blocks on an empty account and resumes once funds arrive.
+     *
+     * @throws InterruptedException if interrupted while waiting for status updates
+     */
+    @Test
+    public void testWithdrawAgentBlocksUntilFundsArrive() throws InterruptedException {
+        Agent agent = new Agent(account, Agent.Kind.Withdraw, new BigDecimal("10.00"), 1_000);
+        BlockingQueue<AgentStatus> statuses = new LinkedBlockingQueue<>();
+        agent.addModelListener(event -> statuses.add(event.getAgStatus()));
+        manager.start(agent);
+
+        assertEquals(AgentStatus.Running, statuses.poll(5, TimeUnit.SECONDS));
+        assertEquals(AgentStatus.Blocked, statuses.poll(5, TimeUnit.SECONDS));
+
+        CountDownLatch withdrawn = new CountDownLatch(2);
+        account.addListener(updated -> withdrawn.countDown());
+        account.deposit(new BigDecimal("15.00"));
+        assertEquals(AgentStatus.Running, statuses.poll(5, TimeUnit.SECONDS));
+        assertTrue("Agent should withdraw once funds arrive", withdrawn.await(5, TimeUnit.SECONDS));
+        assertEquals(new BigDecimal("5.00"), account.getBalance());
+
+        agent.stop();
+        assertEquals(AgentStatus.NA, statuses.poll(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Tests that a paused agent reports its status and stops operating until resumed.
+     *
+     * @throws InterruptedException if interrupted while waiting for status updates
+     */
+    @Test
+    public void testPauseAndResume() throws InterruptedException {
+        BlockingQueue<AgentStatus> statuses = new LinkedBlockingQueue<>();
+        Agent agent = new Agent(account, Agent.Kind.Deposit, new BigDecimal("1.00"), 10);
+        agent.addModelListener(event -> statuses.add(event.getAgStatus()));
+        agent.pause();
+        manager.start(agent);
+
+        assertEquals(AgentStatus.Paused, statuses.poll(5, TimeUnit.SECONDS));
+        assertEquals(BigDecimal.ZERO.setScale(2), account.getBalance());
+
+        agent.resume();
+        assertEquals(AgentStatus.Running, statuses.poll(5, TimeUnit.SECONDS));
+        agent.stop();
+        assertEquals(AgentStatus.NA, statuses.poll(5, TimeUnit.SECONDS));
+        assertTrue(account.getBalance().signum() > 0);
+    }
+}
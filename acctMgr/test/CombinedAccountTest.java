@@ -8,7 +8,14 @@ import acctMgr.model.*;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * JUnit test class for both Account and AccountList classes.
@@ -142,4 +149,131 @@ public class CombinedAccountTest {
         BigDecimal withdrawalAmount = BigDecimal.valueOf(200.00);
         testAccount.withdraw(withdrawalAmount);
     }
+
+    /**
+     * Tests converting the CSV file to the binary format and back, and reading the
+     * binary file through its mapped view.
+     *
+     * @throws IOException if there's an I/O error while converting the files
+     */
+    @Test
+    public void testBinaryStoreRoundTrip() throws IOException {
+        Path binaryFile = Files.createTempFile("accounts", ".bin");
+        Path csvFile = Files.createTempFile("accounts", ".txt");
+        try {
+            BinaryAccountStore.convertCsvToBinary(TEST_LOAD_FILE, binaryFile);
+            try (BinaryAccountStore store = BinaryAccountStore.open(binaryFile)) {
+                assertEquals(8, store.size());
+                int index = store.indexOf("456");
+                assertEquals("George Mcguire", store.getName(index));
+                assertEquals(15_050, store.getBalanceCents(index));
+                assertEquals(-1, store.indexOf("999"));
+            }
+
+            BinaryAccountStore.convertBinaryToCsv(binaryFile, csvFile.toString());
+            accountList.loadAccounts(csvFile.toString());
+            assertEquals(8, accountList.size());
+            assertEquals(0, new BigDecimal("300.00").compareTo(accountList.findById("321").getBalance()));
+        } finally {
+            Files.deleteIfExists(binaryFile);
+            Files.deleteIfExists(csvFile);
+        }
+    }
+
+    /**
+     * Tests that a delta left over from an earlier full save is ignored on load, even when
+     * its modification time is newer than the base file's.
+     *
+     * @throws Exception if there's an error while saving or loading the files
+     */
+    @Test
+    public void testStaleDeltaIgnored() throws Exception {
+        Path saveFile = Files.createTempFile("accounts", ".txt");
+        Path deltaFile = Paths.get(saveFile + ".delta");
+        Path staleCopy = Files.createTempFile("accounts", ".delta");
+        try {
+            accountList.loadAccounts(TEST_LOAD_FILE);
+            accountList.saveAccounts(saveFile.toString());
+            accountList.findById("456").deposit(new BigDecimal("49.50"));
+            accountList.saveAccountsIncremental(saveFile.toString());
+            Files.copy(deltaFile, staleCopy, StandardCopyOption.REPLACE_EXISTING);
+
+            // A newer full save supersedes the delta; then the old delta reappears, newer on disk
+            accountList.findById("456").withdraw(new BigDecimal("100.00"));
+            accountList.saveAccounts(saveFile.toString());
+            Files.copy(staleCopy, deltaFile, StandardCopyOption.REPLACE_EXISTING);
+            Files.setLastModifiedTime(deltaFile, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+
+            AccountList reloaded = new AccountList();
+            reloaded.loadAccounts(saveFile.toString());
+            assertEquals(0, new BigDecimal("100.00").compareTo(reloaded.findById("456").getBalance()));
+        } finally {
+            Files.deleteIfExists(saveFile);
+            Files.deleteIfExists(deltaFile);
+            Files.deleteIfExists(staleCopy);
+        }
+    }
+
+    /**
+     * Tests that an incremental save writes only changed accounts to the delta file and
+     * that loading merges the delta over the base file.
+     *
+     * @throws Exception if there's an error while saving or loading the files
+     */
+    @Test
+    public void testIncrementalSave() throws Exception {
+        Path saveFile = Files.createTempFile("accounts", ".txt");
+        Path deltaFile = Paths.get(saveFile + ".delta");
+        try {
+            accountList.loadAccounts(TEST_LOAD_FILE);
+            accountList.saveAccounts(saveFile.toString());
+            accountList.findById("456").deposit(new BigDecimal("49.50"));
+            accountList.addAccount(new Account("New Holder", "999", new BigDecimal("5.00")));
+            accountList.saveAccountsIncremental(saveFile.toString());
+
+            List<String> deltaLines = Files.readAllLines(deltaFile);
+            assertTrue("The delta starts with its generation stamp", deltaLines.get(0).startsWith("#generation="));
+            assertEquals("Only changed accounts are written", 2, deltaLines.size() - 1);
+            AccountList reloaded = new AccountList();
+            reloaded.loadAccounts(saveFile.toString());
+            assertEquals(9, reloaded.size());
+            assertEquals(0, new BigDecimal("200.00").compareTo(reloaded.findById("456").getBalance()));
+
+            // Removing an account makes the next save a full rewrite
+            accountList.removeAccount(accountList.findById("999"));
+            accountList.saveAccountsIncremental(saveFile.toString());
+            assertFalse(Files.exists(deltaFile));
+            reloaded.loadAccounts(saveFile.toString());
+            assertEquals(8, reloaded.size());
+        } finally {
+            Files.deleteIfExists(saveFile);
+            Files.deleteIfExists(deltaFile);
+        }
+    }
+
+    /**
+     * Tests that background save requests complete and that the saved file reflects
+     * every change made before the last request.
+     *
+     * @throws Exception if there's an error while saving or loading the files
+     */
+    @Test
+    public void testBackgroundSaverCoalescesRequests() throws Exception {
+        Path saveFile = Files.createTempFile("accounts", ".txt");
+        try (BackgroundSaver saver = new BackgroundSaver(accountList, saveFile.toString())) {
+            accountList.loadAccounts(TEST_LOAD_FILE);
+            CompletableFuture<Void> first = saver.requestSave();
+            accountList.findById("123").deposit(new BigDecimal("1.00"));
+            CompletableFuture<Void> second = saver.requestSave();
+            CompletableFuture<Void> third = saver.requestSave();
+            CompletableFuture.allOf(first, second, third).get(10, TimeUnit.SECONDS);
+
+            AccountList reloaded = new AccountList();
+            reloaded.loadAccounts(saveFile.toString());
+            assertEquals(0, new BigDecimal("101.00").compareTo(reloaded.findById("123").getBalance()));
+            assertFalse(Files.exists(Paths.get(saveFile + ".tmp")));
+        } finally {
+            Files.deleteIfExists(saveFile);
+        }
+    }
 }
@@ -1,32 +1,64 @@
 package acctMgr.test;
 
 import acctMgr.model.AccountList;
+import acctMgr.model.ShardedAccountEngine;
+import acctMgr.model.SnapshotStore;
+import acctMgr.model.TransactionJournal;
 import acctMgr.view.AccountSelectionView;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
+/**
+ * Runs the desktop application. Usage: {@code Main [shards]}. With a shard count, deposits
+ * and withdrawals made in account views go through a {@link ShardedAccountEngine} with that
+ * many workers; by default they update the accounts directly.
+ */
 public class Main {
 
     public static void main(String[] args) {
+        int shards = args.length > 0 ? Integer.parseInt(args[0]) : 0;
         // Specify the file path to load the accounts from
         String filePath = "TestLoadFile.txt";
 
         // Create an instance of AccountList
         AccountList accountList = new AccountList();
 
-        // Load accounts from the file
+        // Journal and snapshots that make every transaction durable
+        Path journalPath = Paths.get("journal.log");
+        Path snapshotDir = Paths.get("snapshots");
+
         try {
-            System.out.println("Loading accounts from file: " + filePath);
-            accountList.loadAccounts(filePath);
-            System.out.println("Accounts loaded successfully.");
+            SnapshotStore snapshots = new SnapshotStore(snapshotDir);
+            // A journal without a snapshot is left over from a first start that never
+            // finished its baseline, so only a snapshot means there is state to restore
+            if (snapshots.loadLatest() != null) {
+                // Restore from the latest snapshot plus the journal tail written after it
+                System.out.println("Restoring accounts from snapshot and journal.");
+                long sequence = accountList.restore(snapshots, journalPath);
+                System.out.println("Accounts restored up to journal record " + sequence + ".");
+                accountList.attachJournal(TransactionJournal.open(journalPath, TransactionJournal.SyncPolicy.timeWindow(2)));
+            } else {
+                // First start: load the accounts from the file and snapshot them as the baseline
+                System.out.println("Loading accounts from file: " + filePath);
+                accountList.loadAccounts(filePath);
+                System.out.println("Accounts loaded successfully.");
+                accountList.attachJournal(TransactionJournal.open(journalPath, TransactionJournal.SyncPolicy.timeWindow(2)));
+                snapshots.take(accountList);
+            }
+            snapshots.startPeriodic(accountList, 60);
         } catch (IOException e) {
-            System.err.println("Failed to load accounts from file: " + e.getMessage());
+            System.err.println("Failed to load accounts: " + e.getMessage());
             return;  // Exit the application if loading fails
         }
 
+        // With shards, deposits and withdrawals from the account views run on the engine's shard threads
+        ShardedAccountEngine engine = shards > 0 ? new ShardedAccountEngine(accountList, shards) : null;
+
         // Create the AccountSelectionView
         System.out.println("Creating AccountSelectionView.");
-        AccountSelectionView accountSelectionView = new AccountSelectionView(accountList);
+        AccountSelectionView accountSelectionView = new AccountSelectionView(accountList, engine);
 
         // Set the view visible
         System.out.println("Displaying AccountSelectionView.");
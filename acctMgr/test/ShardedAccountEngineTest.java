@@ -0,0 +1,177 @@
+package acctMgr.test;
+
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import acctMgr.model.*;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JUnit test class for the ShardedAccountEngine.
+ */
+public class ShardedAccountEngineTest {
+    private AccountList accountList;
+    private ShardedAccountEngine engine;
+
+    /**
+     * Creates sixteen accounts of 100.00 each and an engine with four shards.
+     */
+    @Before
+    public void setUp() {
+        accountList = new AccountList();
+        for (int i = 0; i < 16; i++) {
+            accountList.addAccount(new Account("Holder " + i, "ACC" + i, new BigDecimal("100.00")));
+        }
+        engine = new ShardedAccountEngine(accountList, 4, 64);
+    }
+
+    /**
+     * Stops the engine.
+     */
+    @After
+    public void tearDown() {
+        engine.close();
+    }
+
+    /**
+     * Tests deposits, declined withdrawals, and unknown accounts.
+     *
+     * @throws Exception if a future does not complete
+     */
+    @Test
+    public void testOperations() throws Exception {
+        assertEquals(Long.valueOf(12_500), engine.deposit("ACC0", 2_500).get(5, TimeUnit.SECONDS));
+        assertEquals(Long.valueOf(0), engine.withdraw("ACC0", 12_000).get(5, TimeUnit.SECONDS));
+        assertEquals(Long.valueOf(9_500), engine.withdraw("ACC0", 10_000).get(5, TimeUnit.SECONDS));
+        assertEquals(Long.valueOf(500), engine.balance("ACC0").get(5, TimeUnit.SECONDS));
+        try {
+            engine.deposit("missing", 100).get(5, TimeUnit.SECONDS);
+            fail("Expected an unknown account to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+    }
+
+    /**
+     * Tests that concurrent transfers across shards, through a queue small enough to fill,
+     * conserve the total and never overdraw.
+     *
+     * @throws Exception if a future does not complete
+     */
+    @Test
+    public void testCrossShardTransfersConserveTotal() throws Exception {
+        List<Thread> producers = new ArrayList<>();
+        List<CompletableFuture<Long>> results = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t;
+            producers.add(new Thread(() -> {
+                List<CompletableFuture<Long>> mine = new ArrayList<>();
+                for (int i = 0; i < 2_000; i++) {
+                    int from = (i + offset) % 16;
+                    mine.add(engine.transfer("ACC" + from, "ACC" + ((from + 5) % 16), 1 + i % 700));
+                }
+                synchronized (results) {
+                    results.addAll(mine);
+                }
+            }));
+        }
+        for (Thread producer : producers) {
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+
+        long total = 0;
+        for (Account account : accountList.getAccounts()) {
+            assertTrue(account.getBalanceCents() >= 0);
+            total += account.getBalanceCents();
+        }
+        assertEquals(160_000, total);
+        assertEquals(160_000, accountList.getAggregates().getTotalCents());
+    }
+
+    /**
+     * Tests that with a journal attached, changes are recorded and made durable before their
+     * futures complete and their listeners hear of them.
+     *
+     * @throws Exception if the journal cannot be written or read
+     */
+    @Test
+    public void testJournaledOperations() throws Exception {
+        Path journalFile = Files.createTempFile("engine-journal", ".log");
+        try {
+            TransactionJournal journal = TransactionJournal.open(journalFile, TransactionJournal.SyncPolicy.timeWindow(2));
+            accountList.attachJournal(journal);
+            AtomicInteger notified = new AtomicInteger();
+            accountList.findById("ACC1").addListener(account -> notified.incrementAndGet());
+
+            assertEquals(Long.valueOf(12_500), engine.deposit("ACC0", 2_500).get(5, TimeUnit.SECONDS));
+            assertEquals(Long.valueOf(0), engine.transfer("ACC0", "ACC1", 2_000).get(5, TimeUnit.SECONDS));
+            assertEquals(Long.valueOf(100), engine.withdraw("ACC1", 12_100).get(5, TimeUnit.SECONDS));
+            assertEquals(Long.valueOf(0), engine.withdraw("ACC1", 12_000).get(5, TimeUnit.SECONDS));
+            assertEquals(2, notified.get());
+            assertEquals(3, journal.getLastSequence());
+            engine.close();
+            journal.close();
+
+            List<TransactionJournal.JournalRecord> records = new ArrayList<>();
+            TransactionJournal.replay(journalFile, 0, records::add);
+            assertEquals(3, records.size());
+            assertEquals(TransactionJournal.RecordType.Transfer, records.get(1).getType());
+            assertEquals(12_000, records.get(2).getAmountCents());
+        } finally {
+            Files.deleteIfExists(journalFile);
+        }
+    }
+
+    /**
+     * Tests that every command submitted while the engine is closing completes one way or
+     * the other, rather than being left in a queue nobody drains.
+     *
+     * @throws Exception if a future does not complete
+     */
+    @Test
+    public void testSubmitRacingCloseCompletes() throws Exception {
+        List<CompletableFuture<Long>> results = new ArrayList<>();
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t;
+            producers.add(new Thread(() -> {
+                List<CompletableFuture<Long>> mine = new ArrayList<>();
+                for (int i = 0; i < 5_000; i++) {
+                    mine.add(engine.deposit("ACC" + ((i + offset) % 16), 1));
+                }
+                synchronized (results) {
+                    results.addAll(mine);
+                }
+            }));
+        }
+        for (Thread producer : producers) {
+            producer.start();
+        }
+        engine.close();
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        for (CompletableFuture<Long> result : results) {
+            try {
+                result.get(5, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof RejectedExecutionException);
+            }
+        }
+    }
+}
@@ -0,0 +1,453 @@
+package acctMgr.test;
+
+import acctMgr.metrics.LatencyHistogram;
+import acctMgr.metrics.LatencySnapshot;
+import acctMgr.model.Account;
+import acctMgr.model.AccountList;
+import acctMgr.model.OverdrawException;
+import acctMgr.model.ShardedAccountEngine;
+import acctMgr.model.SnapshotStore;
+import acctMgr.model.TransactionJournal;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load generator that runs random deposits, withdrawals, and transfers against an
+ * {@link AccountList} from many threads at once, then checks that the book is still
+ * consistent. Account choice follows a Zipf distribution so that a few hot accounts take
+ * most of the traffic; a skew of zero picks accounts uniformly.
+ * <p>
+ * After the run the harness checks three invariants: the total balance equals the starting
+ * total plus deposits minus withdrawals (transfers move money but never create it), no
+ * balance is negative, and restoring from the starting snapshot and the journal gives the
+ * same balances as the live accounts. It reports throughput and latency percentiles.
+ * <p>
+ * Usage: {@code StressHarness [key=value ...]} with the keys {@code accounts},
+ * {@code file} (load the accounts from this file instead of generating them),
+ * {@code threads}, {@code ops} (per thread), {@code skew}, {@code seed}, and {@code shards}
+ * (route every operation through a {@link ShardedAccountEngine} with that many workers; the
+ * default of zero calls the accounts directly).
+ */
+public class StressHarness {
+    private static final long INITIAL_BALANCE_CENTS = 100_000;
+    private static final long MAX_AMOUNT_CENTS = 10_000;
+
+    private int accounts = 1_000;
+    private String accountFile;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private long opsPerThread = 100_000;
+    private double skew = 1.0;
+    private long seed = 42;
+    private int shards;
+
+    /**
+     * The outcome of one run.
+     */
+    public static class Report {
+        private final long operations;
+        private final long overdraws;
+        private final long elapsedNanos;
+        private final LatencySnapshot latency;
+        private final List<String> violations;
+
+        Report(long operations, long overdraws, long elapsedNanos, LatencySnapshot latency, List<String> violations) {
+            this.operations = operations;
+            this.overdraws = overdraws;
+            this.elapsedNanos = elapsedNanos;
+            this.latency = latency;
+            this.violations = violations;
+        }
+
+        /**
+         * Returns the number of operations attempted, including those refused for overdraw.
+         *
+         * @return The operation count.
+         */
+        public long getOperations() {
+            return operations;
+        }
+
+        /**
+         * Returns the number of withdrawals and transfers refused for overdraw.
+         *
+         * @return The overdraw count.
+         */
+        public long getOverdraws() {
+            return overdraws;
+        }
+
+        /**
+         * Returns the throughput over the whole run.
+         *
+         * @return Operations per second.
+         */
+        public double getOpsPerSecond() {
+            return operations * 1e9 / Math.max(1, elapsedNanos);
+        }
+
+        /**
+         * Returns the per-operation latency summary.
+         *
+         * @return The latency snapshot.
+         */
+        public LatencySnapshot getLatency() {
+            return latency;
+        }
+
+        /**
+         * Returns a description of each invariant that did not hold.
+         *
+         * @return The violations, empty if the book is consistent.
+         */
+        public List<String> getViolations() {
+            return violations;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%d ops (%d overdraws) at %.0f ops/sec%n", operations, overdraws, getOpsPerSecond()));
+            sb.append(String.format("latency us: p50=%.1f p99=%.1f p999=%.1f max=%.1f%n",
+                    latency.getP50Nanos() / 1e3, latency.getP99Nanos() / 1e3,
+                    latency.getP999Nanos() / 1e3, latency.getMaxNanos() / 1e3));
+            if (violations.isEmpty()) {
+                sb.append("invariants: OK");
+            } else {
+                sb.append("invariants: ").append(violations.size()).append(" violated");
+                for (String violation : violations) {
+                    sb.append(System.lineSeparator()).append("  ").append(violation);
+                }
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Sets the number of generated accounts.
+     *
+     * @param accounts The account count.
+     * @return This harness.
+     */
+    public StressHarness accounts(int accounts) {
+        this.accounts = accounts;
+        return this;
+    }
+
+    /**
+     * Loads the accounts from a file instead of generating them.
+     *
+     * @param accountFile The account file.
+     * @return This harness.
+     */
+    public StressHarness accountFile(String accountFile) {
+        this.accountFile = accountFile;
+        return this;
+    }
+
+    /**
+     * Sets the number of worker threads.
+     *
+     * @param threads The thread count.
+     * @return This harness.
+     */
+    public StressHarness threads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * Sets the number of operations each thread performs.
+     *
+     * @param opsPerThread The operation count per thread.
+     * @return This harness.
+     */
+    public StressHarness opsPerThread(long opsPerThread) {
+        this.opsPerThread = opsPerThread;
+        return this;
+    }
+
+    /**
+     * Sets the Zipf exponent for account choice.
+     *
+     * @param skew The exponent; zero is uniform, larger values concentrate load.
+     * @return This harness.
+     */
+    public StressHarness skew(double skew) {
+        this.skew = skew;
+        return this;
+    }
+
+    /**
+     * Sets the random seed.
+     *
+     * @param seed The seed.
+     * @return This harness.
+     */
+    public StressHarness seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Routes operations through a sharded engine instead of calling the accounts directly.
+     *
+     * @param shards The number of engine workers, or zero for direct calls.
+     * @return This harness.
+     */
+    public StressHarness shards(int shards) {
+        this.shards = shards;
+        return this;
+    }
+
+    /**
+     * Runs the load and checks the invariants. The journal and snapshot are written to the
+     * given directory.
+     *
+     * @param workDir An empty directory for the journal and snapshot.
+     * @return The report.
+     * @throws IOException If the accounts, journal, or snapshot cannot be read or written.
+     * @throws InterruptedException If interrupted while waiting for the workers.
+     */
+    public Report run(Path workDir) throws IOException, InterruptedException {
+        AccountList accountList = new AccountList();
+        if (accountFile != null) {
+            accountList.loadAccounts(accountFile);
+        } else {
+            for (int i = 0; i < accounts; i++) {
+                accountList.addAccount(new Account("Holder " + i, String.format("%08d", i), INITIAL_BALANCE_CENTS));
+            }
+        }
+        Account[] book = accountList.getAccounts().toArray(new Account[0]);
+        if (book.length < 2) {
+            throw new IllegalArgumentException("At least two accounts are needed for transfers");
+        }
+
+        // Baseline snapshot, then journal every operation, as the applications do
+        Path journalPath = workDir.resolve("journal.log");
+        SnapshotStore snapshots = new SnapshotStore(workDir.resolve("snapshots"));
+        accountList.attachJournal(TransactionJournal.open(journalPath,
+                TransactionJournal.SyncPolicy.batchSize(threads, 2)));
+        snapshots.take(accountList);
+        long startTotal = sumCents(book);
+
+        ShardedAccountEngine engine = shards > 0 ? new ShardedAccountEngine(accountList, shards) : null;
+        double[] cumulative = zipfCumulative(book.length, skew);
+        LatencyHistogram latency = new LatencyHistogram();
+        AtomicLong netFlow = new AtomicLong();
+        AtomicLong overdraws = new AtomicLong();
+        List<Throwable> errors = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        SplittableRandom seeds = new SplittableRandom(seed);
+        for (int t = 0; t < threads; t++) {
+            SplittableRandom random = seeds.split();
+            workers[t] = new Thread(() -> {
+                long flow = 0;
+                long refused = 0;
+                try {
+                    start.await();
+                    for (long i = 0; i < opsPerThread; i++) {
+                        int index = pick(cumulative, random);
+                        Account account = book[index];
+                        long amount = 1 + random.nextLong(MAX_AMOUNT_CENTS);
+                        int kind = random.nextInt(10);
+                        long began = System.nanoTime();
+                        try {
+                            if (kind < 4) {
+                                if (engine != null) {
+                                    engine.deposit(account.getId(), amount).join();
+                                } else {
+                                    account.depositCents(amount);
+                                }
+                                flow += amount;
+                            } else if (kind < 7) {
+                                long shortfall = engine != null
+                                        ? engine.withdraw(account.getId(), amount).join()
+                                        : account.tryWithdrawCents(amount);
+                                if (shortfall == 0) {
+                                    flow -= amount;
+                                } else {
+                                    refused++;
+                                }
+                            } else {
+                                int toIndex = pick(cumulative, random);
+                                Account to = book[toIndex == index ? (index + 1) % book.length : toIndex];
+                                if (engine != null) {
+                                    if (engine.transfer(account.getId(), to.getId(), amount).join() > 0) {
+                                        refused++;
+                                    }
+                                } else {
+                                    accountList.transfer(account.getId(), to.getId(), BigDecimal.valueOf(amount, Account.SCALE));
+                                }
+                            }
+                        } catch (OverdrawException e) {
+                            refused++;
+                        }
+                        latency.recordSince(began);
+                    }
+                } catch (Throwable e) {
+                    synchronized (errors) {
+                        errors.add(e);
+                    }
+                } finally {
+                    netFlow.addAndGet(flow);
+                    overdraws.addAndGet(refused);
+                }
+            }, "stress-" + t);
+            workers[t].start();
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - began;
+        if (engine != null) {
+            engine.close();
+        }
+        accountList.getJournal().close();
+        snapshots.close();
+
+        List<String> violations = new ArrayList<>();
+        for (Throwable error : errors) {
+            violations.add("worker failed: " + error);
+        }
+        checkConservation(book, accountList, startTotal + netFlow.get(), violations);
+        checkJournal(book, workDir, journalPath, violations);
+        return new Report((long) threads * opsPerThread, overdraws.get(), elapsed, latency.snapshot(), violations);
+    }
+
+    /**
+     * Checks that money was neither created nor destroyed and that no balance is negative.
+     */
+    private static void checkConservation(Account[] book, AccountList accountList, long expectedTotal, List<String> violations) {
+        long total = sumCents(book);
+        if (total != expectedTotal) {
+            violations.add("total " + total + " cents, expected " + expectedTotal);
+        }
+        if (accountList.getAggregates().getTotalCents() != total) {
+            violations.add("aggregate total " + accountList.getAggregates().getTotalCents() + " cents, accounts sum to " + total);
+        }
+        for (Account account : book) {
+            if (account.getBalanceCents() < 0) {
+                violations.add("account " + account.getId() + " is negative: " + account.getBalanceCents());
+            }
+        }
+    }
+
+    /**
+     * Checks that replaying the journal over the baseline snapshot reproduces every balance.
+     */
+    private static void checkJournal(Account[] book, Path workDir, Path journalPath, List<String> violations) throws IOException {
+        AccountList replayed = new AccountList();
+        try (SnapshotStore snapshots = new SnapshotStore(workDir.resolve("snapshots"))) {
+            replayed.restore(snapshots, journalPath);
+        }
+        if (replayed.size() != book.length) {
+            violations.add("journal replay has " + replayed.size() + " accounts, expected " + book.length);
+        }
+        for (Account account : book) {
+            Account copy = replayed.findById(account.getId());
+            if (copy == null || copy.getBalanceCents() != account.getBalanceCents()) {
+                violations.add("account " + account.getId() + " replays to "
+                        + (copy == null ? "nothing" : copy.getBalanceCents()) + ", live " + account.getBalanceCents());
+            }
+        }
+    }
+
+    /**
+     * Sums the balances of the given accounts.
+     */
+    private static long sumCents(Account[] book) {
+        long total = 0;
+        for (Account account : book) {
+            total += account.getBalanceCents();
+        }
+        return total;
+    }
+
+    /**
+     * Builds the cumulative distribution of a Zipf law over {@code n} ranks.
+     */
+    private static double[] zipfCumulative(int n, double exponent) {
+        double[] cumulative = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1.0 / Math.pow(i + 1, exponent);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+
+    /**
+     * Draws an account index from a cumulative distribution.
+     */
+    private static int pick(double[] cumulative, SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+
+    /**
+     * Runs the harness from the command line and prints the report.
+     *
+     * @param args Settings as {@code key=value} pairs.
+     * @throws Exception If the run fails.
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                System.err.println("Ignoring argument without '=': " + arg);
+                continue;
+            }
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        StressHarness harness = new StressHarness();
+        if (options.containsKey("accounts")) {
+            harness.accounts(Integer.parseInt(options.get("accounts")));
+        }
+        if (options.containsKey("file")) {
+            harness.accountFile(options.get("file"));
+        }
+        if (options.containsKey("threads")) {
+            harness.threads(Integer.parseInt(options.get("threads")));
+        }
+        if (options.containsKey("ops")) {
+            harness.opsPerThread(Long.parseLong(options.get("ops")));
+        }
+        if (options.containsKey("skew")) {
+            harness.skew(Double.parseDouble(options.get("skew")));
+        }
+        if (options.containsKey("seed")) {
+            harness.seed(Long.parseLong(options.get("seed")));
+        }
+        if (options.containsKey("shards")) {
+            harness.shards(Integer.parseInt(options.get("shards")));
+        }
+
+        Path workDir = Files.createTempDirectory(Paths.get("."), "stress");
+        Report report = harness.run(workDir);
+        System.out.println(report);
+        System.out.println("Journal and snapshot kept in " + workDir);
+        if (!report.getViolations().isEmpty()) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package acctMgr.test;
+
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import acctMgr.model.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * JUnit test class for the TransactionJournal class.
+ */
+public class TransactionJournalTest {
+    private Path journalFile;
+    private AccountList accountList;
+
+    /**
+     * Sets up the test fixture.
+     *
+     * @throws IOException if the temporary journal file cannot be created
+     */
+    @Before
+    public void setUp() throws IOException {
+        journalFile = Files.createTempFile("journal", ".log");
+        accountList = new AccountList();
+    }
+
+    /**
+     * Removes the temporary journal file.
+     *
+     * @throws IOException if the file cannot be deleted
+     */
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(journalFile);
+    }
+
+    /**
+     * Tests that deposits, withdrawals, and transfers are journaled and can be replayed.
+     *
+     * @throws Exception if the journal cannot be written or read
+     */
+    @Test
+    public void testOperationsAreJournaled() throws Exception {
+        try (TransactionJournal journal = TransactionJournal.open(journalFile,
+                TransactionJournal.SyncPolicy.perOperation())) {
+            accountList.attachJournal(journal);
+            accountList.addAccount(new Account("Maitland Huffman", "123", new BigDecimal("100.00")));
+            accountList.addAccount(new Account("Professor", "2341", new BigDecimal("200.00")));
+            accountList.findById("123").deposit(new BigDecimal("25.50"));
+            accountList.findById("2341").withdraw(new BigDecimal("20.00"));
+            accountList.transfer("2341", "123", new BigDecimal("30.00"));
+            try {
+                accountList.findById("123").withdraw(new BigDecimal("1000.00"));
+                fail("Expected an OverdrawException");
+            } catch (OverdrawException e) {
+                // Rejected withdrawals are not journaled
+            }
+        }
+
+        List<TransactionJournal.JournalRecord> records = new ArrayList<>();
+        long last = TransactionJournal.replay(journalFile, 0, records::add);
+        assertEquals(5, last);
+        assertEquals(5, records.size());
+        assertEquals(TransactionJournal.RecordType.Open, records.get(0).getType());
+        assertEquals("Maitland Huffman", records.get(0).getName());
+        assertEquals(10_000, records.get(0).getAmountCents());
+        assertEquals(TransactionJournal.RecordType.Deposit, records.get(2).getType());
+        assertEquals(2_550, records.get(2).getAmountCents());
+        assertEquals(TransactionJournal.RecordType.Withdraw, records.get(3).getType());
+        assertEquals(TransactionJournal.RecordType.Transfer, records.get(4).getType());
+        assertEquals("2341", records.get(4).getAccountId());
+        assertEquals("123", records.get(4).getToAccountId());
+    }
+
+    /**
+     * Tests that concurrent writers share fsyncs and that numbering continues after reopening.
+     *
+     * @throws Exception if the journal cannot be written or read
+     */
+    @Test
+    public void testGroupCommitAndReopen() throws Exception {
+        Account account = new Account("Maitland Huffman", "123", BigDecimal.ZERO);
+        long syncs;
+        try (TransactionJournal journal = TransactionJournal.open(journalFile,
+                TransactionJournal.SyncPolicy.batchSize(16, 2))) {
+            accountList.attachJournal(journal);
+            accountList.addAccount(account);
+            List<Thread> writers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                Thread writer = new Thread(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        account.deposit(new BigDecimal("1.00"));
+                    }
+                });
+                writers.add(writer);
+                writer.start();
+            }
+            for (Thread writer : writers) {
+                writer.join();
+            }
+            syncs = journal.getSyncCount();
+        }
+        assertTrue("Writers should share fsyncs, got " + syncs, syncs < 801);
+        assertEquals(new BigDecimal("800.00"), account.getBalance());
+
+        try (TransactionJournal journal = TransactionJournal.open(journalFile,
+                TransactionJournal.SyncPolicy.perOperation())) {
+            assertEquals(801, journal.getLastSequence());
+        }
+    }
+
+    /**
+     * Tests that names too long for a record are refused before anything changes, while the
+     * longest allowed name is recorded and replayed intact.
+     *
+     * @throws Exception if the journal cannot be written or read
+     */
+    @Test
+    public void testOverlongFieldsRejected() throws Exception {
+        String longest = "n".repeat(0xFFFE);
+        try (TransactionJournal journal = TransactionJournal.open(journalFile,
+                TransactionJournal.SyncPolicy.perOperation())) {
+            accountList.attachJournal(journal);
+            try {
+                accountList.addAccount(new Account(longest + "n", "123", new BigDecimal("1.00")));
+                fail("Expected the name to be refused");
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+            assertNull(accountList.findById("123"));
+            assertEquals(0, journal.getLastSequence());
+            accountList.addAccount(new Account(longest, "123", new BigDecimal("1.00")));
+        }
+        List<TransactionJournal.JournalRecord> records = new ArrayList<>();
+        TransactionJournal.replay(journalFile, 0, records::add);
+        assertEquals(1, records.size());
+        assertEquals(longest, records.get(0).getName());
+    }
+
+    /**
+     * Tests that a torn record at the end of the journal is ignored and truncated.
+     *
+     * @throws Exception if the journal cannot be written or read
+     */
+    @Test
+    public void testTornTailIsDiscarded() throws Exception {
+        try (TransactionJournal journal = TransactionJournal.open(journalFile,
+                TransactionJournal.SyncPolicy.perOperation())) {
+            journal.record(TransactionJournal.RecordType.Deposit, "123", null, 100);
+            journal.record(TransactionJournal.RecordType.Deposit, "123", null, 200);
+        }
+        try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        try (TransactionJournal journal = TransactionJournal.open(journalFile,
+                TransactionJournal.SyncPolicy.perOperation())) {
+            assertEquals(1, journal.getLastSequence());
+            assertEquals(2, journal.record(TransactionJournal.RecordType.Deposit, "123", null, 300));
+        }
+        List<TransactionJournal.JournalRecord> records = new ArrayList<>();
+        TransactionJournal.replay(journalFile, 0, records::add);
+        assertEquals(2, records.size());
+        assertEquals(300, records.get(1).getAmountCents());
+    }
+
+    /**
+     * Tests that state is restored from the latest snapshot plus the journal tail after it.
+     *
+     * @throws Exception if the snapshot or journal cannot be written or read
+     */
+    @Test
+    public void testRestoreFromSnapshotAndJournalTail() throws Exception {
+        Path snapshotDir = Files.createTempDirectory("snapshots");
+        try {
+            SnapshotStore snapshots = new SnapshotStore(snapshotDir);
+            try (TransactionJournal journal = TransactionJournal.open(journalFile,
+                    TransactionJournal.SyncPolicy.perOperation())) {
+                accountList.attachJournal(journal);
+                accountList.addAccount(new Account("Maitland Huffman", "123", new BigDecimal("100.00")));
+                accountList.addAccount(new Account("Professor", "2341", new BigDecimal("200.00")));
+                accountList.findById("123").deposit(new BigDecimal("50.00"));
+                assertEquals(3, snapshots.take(accountList));
+
+                accountList.transfer("2341", "123", new BigDecimal("25.00"));
+                accountList.addAccount(new Account("George Mcguire", "456", new BigDecimal("10.00")));
+                accountList.findById("456").withdraw(new BigDecimal("4.00"));
+            }
+
+            AccountList restored = new AccountList();
+            assertEquals(6, restored.restore(snapshots, journalFile));
+            assertEquals(3, restored.size());
+            assertEquals(new BigDecimal("175.00"), restored.findById("123").getBalance());
+            assertEquals(new BigDecimal("175.00"), restored.findById("2341").getBalance());
+            assertEquals(new BigDecimal("6.00"), restored.findById("456").getBalance());
+        } finally {
+            try (Stream<Path> files = Files.walk(snapshotDir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+            try (Stream<Path> files = Files.list(journalFile.getParent())) {
+                files.filter(p -> p.getFileName().toString().startsWith(journalFile.getFileName() + "."))
+                        .forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    /**
+     * Tests that a journal record for an account that does not exist fails the restore with
+     * its sequence number, and that the book cannot be swapped under an attached journal.
+     *
+     * @throws Exception if the journal cannot be written or read
+     */
+    @Test
+    public void testRestoreRejectsUnknownAccount() throws Exception {
+        try (TransactionJournal journal = TransactionJournal.open(journalFile,
+                TransactionJournal.SyncPolicy.perOperation())) {
+            accountList.attachJournal(journal);
+            accountList.addAccount(new Account("Maitland Huffman", "123", new BigDecimal("100.00")));
+            journal.record(TransactionJournal.RecordType.Deposit, "999", null, 100);
+            try {
+                accountList.loadAccounts("testLoadFile.txt");
+                fail("Expected the reload to be refused");
+            } catch (IllegalStateException e) {
+                // Expected
+            }
+        }
+        Path snapshotDir = Files.createTempDirectory("snapshots");
+        try {
+            new AccountList().restore(new SnapshotStore(snapshotDir), journalFile);
+            fail("Expected the restore to fail");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("record 2") && e.getMessage().contains("999"));
+        } finally {
+            Files.deleteIfExists(snapshotDir);
+        }
+    }
+
+    /**
+     * Tests that a change whose journal write fails still reaches the aggregates, but is not
+     * announced to listeners as if it were durable.
+     *
+     * @throws Exception if the journal cannot be opened
+     */
+    @Test
+    public void testFailedJournalWriteStillCounted() throws Exception {
+        Account account = new Account("Maitland Huffman", "123", new BigDecimal("100.00"));
+        TransactionJournal journal = TransactionJournal.open(journalFile, TransactionJournal.SyncPolicy.perOperation());
+        accountList.attachJournal(journal);
+        accountList.addAccount(account);
+        List<Account> notified = new ArrayList<>();
+        account.addListener(notified::add);
+        journal.close();
+
+        try {
+            account.deposit(new BigDecimal("5.00"));
+            fail("Expected the journal write to fail");
+        } catch (UncheckedIOException e) {
+            // Expected
+        }
+        assertEquals(10_500, accountList.getAggregates().getTotalCents());
+        assertTrue("Listeners hear only of durable changes", notified.isEmpty());
+    }
+}
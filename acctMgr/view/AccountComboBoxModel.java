@@ -0,0 +1,206 @@
+package acctMgr.view;
+
+import acctMgr.model.Account;
+import acctMgr.model.AccountList;
+import acctMgr.model.ModelEvent;
+import acctMgr.model.ModelListener;
+import javax.swing.AbstractListModel;
+import javax.swing.ComboBoxModel;
+import javax.swing.SwingUtilities;
+import java.util.ArrayList;
+import java.util.Locale;
+
+/**
+ * Combo box model over the accounts of an {@link AccountList}, sorted by ID.
+ * Rows are kept in step with the account list by applying each add or remove event as a
+ * single-row change, so a balance change or a new account costs no Swing work beyond
+ * that row. An optional filter restricts the rows to accounts whose ID starts with, or
+ * whose name contains, the filter text. All methods except {@link #modelChanged} must be
+ * called on the Swing event thread.
+ */
+public class AccountComboBoxModel extends AbstractListModel<Account> implements ComboBoxModel<Account>, ModelListener {
+    private static final long serialVersionUID = 1L;
+
+    private final transient AccountList accountList;
+    private final ArrayList<Account> rows = new ArrayList<>();
+    private String filter = "";
+    private Account selected;
+
+    /**
+     * Constructs an AccountComboBoxModel and subscribes it to the account list.
+     *
+     * @param accountList The accounts to present.
+     */
+    public AccountComboBoxModel(AccountList accountList) {
+        this.accountList = accountList;
+        accountList.addModelListener(this);
+        reload();
+    }
+
+    /**
+     * Restricts the rows to accounts matching the filter text, ignoring case.
+     *
+     * @param text The filter text; empty shows every account.
+     */
+    public void setFilter(String text) {
+        String normalized = text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+        if (!normalized.equals(filter)) {
+            filter = normalized;
+            reload();
+        }
+    }
+
+    /**
+     * Rebuilds the rows from the account list. Used for a new filter or a bulk reload.
+     */
+    private void reload() {
+        int oldSize = rows.size();
+        rows.clear();
+        if (oldSize > 0) {
+            fireIntervalRemoved(this, 0, oldSize - 1);
+        }
+        for (Account account : accountList.accounts()) {
+            if (matches(account)) {
+                rows.add(account);
+            }
+        }
+        if (!rows.isEmpty()) {
+            fireIntervalAdded(this, 0, rows.size() - 1);
+        }
+        if (selected != null && indexOf(selected.getId()) < 0) {
+            setSelectedItem(rows.isEmpty() ? null : rows.get(0));
+        } else if (selected == null && !rows.isEmpty()) {
+            setSelectedItem(rows.get(0));
+        }
+    }
+
+    /**
+     * Checks whether an account passes the current filter.
+     *
+     * @param account The account to check.
+     * @return {@code true} if the account should be shown.
+     */
+    private boolean matches(Account account) {
+        return filter.isEmpty()
+                || account.getId().toLowerCase(Locale.ROOT).startsWith(filter)
+                || account.getName().toLowerCase(Locale.ROOT).contains(filter);
+    }
+
+    /**
+     * Finds the row of an account by binary search on the ID.
+     *
+     * @param id The account ID.
+     * @return The row, or {@code -(insertion point) - 1} if the ID is not shown.
+     */
+    private int indexOf(String id) {
+        int low = 0;
+        int high = rows.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = rows.get(mid).getId().compareTo(id);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Receives account list events on the model's event thread and applies them on the
+     * Swing event thread.
+     *
+     * @param event The model event.
+     */
+    @Override
+    public void modelChanged(ModelEvent event) {
+        switch (event.getKind()) {
+            case AccountAdded:
+            case AccountRemoved:
+            case AccountsReloaded:
+                SwingUtilities.invokeLater(() -> apply(event));
+                break;
+            default:
+                // Rows show only ID and name, so balance changes need no update
+                break;
+        }
+    }
+
+    /**
+     * Applies one add, remove or reload event to the rows.
+     *
+     * @param event The model event.
+     */
+    private void apply(ModelEvent event) {
+        if (event.getKind() == ModelEvent.EventKind.AccountsReloaded) {
+            reload();
+            return;
+        }
+        String id = event.getAccountId();
+        Account current = accountList.findById(id);
+        int row = indexOf(id);
+        if (current != null && matches(current)) {
+            if (row >= 0) {
+                rows.set(row, current);
+                fireContentsChanged(this, row, row);
+            } else {
+                int insertAt = -row - 1;
+                rows.add(insertAt, current);
+                fireIntervalAdded(this, insertAt, insertAt);
+            }
+        } else if (row >= 0) {
+            Account removed = rows.remove(row);
+            fireIntervalRemoved(this, row, row);
+            if (removed == selected) {
+                setSelectedItem(null);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return The number of accounts shown.
+     */
+    @Override
+    public int getSize() {
+        return rows.size();
+    }
+
+    /**
+     * Returns the account at a row.
+     *
+     * @param index The row.
+     * @return The account shown at that row.
+     */
+    @Override
+    public Account getElementAt(int index) {
+        return rows.get(index);
+    }
+
+    /**
+     * Sets the selected account.
+     *
+     * @param item The account to select, or {@code null}.
+     */
+    @Override
+    public void setSelectedItem(Object item) {
+        if (item != selected) {
+            selected = (Account) item;
+            fireContentsChanged(this, -1, -1);
+        }
+    }
+
+    /**
+     * Returns the selected account.
+     *
+     * @return The selected account, or {@code null}.
+     */
+    @Override
+    public Object getSelectedItem() {
+        return selected;
+    }
+}
@@ -3,12 +3,17 @@ package acctMgr.view;
 import acctMgr.controller.AccountSelectionViewController;
 import acctMgr.model.Account;
 import acctMgr.model.AccountList;
+import acctMgr.model.BackgroundSaver;
 import acctMgr.model.Model;
+import acctMgr.model.ShardedAccountEngine;
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.io.IOException;
+import java.util.concurrent.CancellationException;
 
 /**
  * Represents the view for selecting an account from a list and managing selection interactions.
@@ -18,9 +23,14 @@ public class AccountSelectionView extends JFrameView {
 
     private AccountSelectionViewController controller;
     private JComboBox<Account> accountComboBox;
+    private AccountComboBoxModel accountComboBoxModel;
+    private JTextField searchField;
+    private Timer searchTimer;
     private JButton selectButton;
     private JButton saveButton;
     private JButton exitButton;
+    private transient BackgroundSaver saver;
+    private final transient ShardedAccountEngine engine;
 
     /**
      * Constructs an AccountSelectionView with the specified model.
@@ -28,8 +38,20 @@ public class AccountSelectionView extends JFrameView {
      * @param model The model to associate with this view.
      */
     public AccountSelectionView(Model model) {
+        this(model, null);
+    }
+
+    /**
+     * Constructs an AccountSelectionView whose account views submit deposits and
+     * withdrawals to a sharded engine.
+     *
+     * @param model The model to associate with this view.
+     * @param engine The engine to submit operations to, or {@code null} to update accounts directly.
+     */
+    public AccountSelectionView(Model model, ShardedAccountEngine engine) {
         super(model);
-        controller = new AccountSelectionViewController(this, (AccountList) model);
+        this.engine = engine;
+        controller = new AccountSelectionViewController(this, (AccountList) model, engine);
         initialize();
     }
 
@@ -38,8 +60,34 @@ public class AccountSelectionView extends JFrameView {
      */
     @Override
     public void initialize() {
-        // Set up UI components
-        accountComboBox = new JComboBox<>();
+        // Saves run on a background thread so the UI never waits on disk writes
+        saver = new BackgroundSaver((AccountList) getModel(), "testSaveFile.txt");
+
+        // Set up UI components. The combo box model follows the account list incrementally,
+        // and the prototype value spares the combo box from measuring every row.
+        accountComboBoxModel = new AccountComboBoxModel((AccountList) getModel());
+        accountComboBox = new JComboBox<>(accountComboBoxModel);
+        accountComboBox.setPrototypeDisplayValue(new Account("Xxxxxxxxxxxxxxxxxxxxxxxx", "0000000000", 0L));
+        accountComboBox.setMaximumRowCount(20);
+        searchField = new JTextField(10);
+        searchTimer = new Timer(150, e -> accountComboBoxModel.setFilter(searchField.getText()));
+        searchTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+        });
         selectButton = new JButton("Select Account");
         saveButton = new JButton("Save");
         exitButton = new JButton("Exit");
@@ -53,6 +101,8 @@ public class AccountSelectionView extends JFrameView {
         JPanel panel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 10)); // Center alignment with gaps
 
         // Add components to the panel
+        panel.add(new JLabel("Search:"));
+        panel.add(searchField);
         panel.add(new JLabel("Select Account:"));
         panel.add(accountComboBox);
         panel.add(selectButton);
@@ -64,7 +114,7 @@ public class AccountSelectionView extends JFrameView {
         pack();
         
         // Set the initial size of the frame
-        setSize(400, 100);
+        setSize(700, 100);
 
         // Add a window listener to handle close event
         addWindowListener(new WindowAdapter() {
@@ -79,16 +129,17 @@ public class AccountSelectionView extends JFrameView {
     }
 
     /**
-     * Handles the save button click event by saving accounts to the file.
+     * Handles the save button click event by requesting a background save of the accounts.
+     * The outcome is reported once the save has completed.
      */
     private void handleSaveButtonClick() {
-        AccountList model = (AccountList) getModel();
-        try {
-            model.saveAccounts("testSaveFile.txt");
-            showInfoMessage("Accounts saved successfully.");
-        } catch (IOException ex) {
-            showErrorMessage("Error saving accounts: " + ex.getMessage());
-        }
+        saver.requestSave().whenComplete((result, ex) -> SwingUtilities.invokeLater(() -> {
+            if (ex == null) {
+                showInfoMessage("Accounts saved successfully.");
+            } else if (!(ex instanceof CancellationException)) {
+                showErrorMessage("Error saving accounts: " + ex.getMessage());
+            }
+        }));
     }
 
     /**
@@ -99,28 +150,36 @@ public class AccountSelectionView extends JFrameView {
     }
 
     /**
-     * Handles the window close event by saving accounts before exiting.
+     * Handles the window close event by saving accounts before exiting. Only a background
+     * save already in progress is waited for; the changes made since are then written
+     * incrementally rather than by another full save. The application exits even if that
+     * save fails, after reporting the error.
      */
     private void handleWindowClose() {
         AccountList model = (AccountList) getModel();
+        if (engine != null) {
+            // Apply whatever is still queued so the final save includes it
+            engine.close();
+        }
+        saver.close();
         try {
-            model.saveAccounts("testSaveFile.txt");
+            model.saveAccountsIncremental("testSaveFile.txt");
             System.exit(0);
         } catch (IOException ex) {
+            // The engine and saver are already closed, so every later operation would fail;
+            // exit instead of leaving a window that only looks usable
             showErrorMessage("Error saving accounts: " + ex.getMessage());
+            System.exit(1);
         }
     }
 
     /**
-     * Refreshes the view based on changes in the model.
+     * Refreshes the view based on changes in the model. The combo box model applies
+     * account changes itself, so only a repaint is needed here.
      */
     @Override
     public void refreshView() {
-        accountComboBox.removeAllItems();
-        AccountList model = (AccountList) getModel();
-        for (Account account : model.getAccounts()) {
-            accountComboBox.addItem(account);
-        }
+        accountComboBox.repaint();
     }
 
     /**
@@ -1,10 +1,17 @@
 package acctMgr.view;
 
+import acctMgr.controller.AccountViewController;
 import acctMgr.model.Account;
+import acctMgr.model.AccountList;
 import acctMgr.model.AccountListener;
+import acctMgr.model.CurrencyEngine;
+import acctMgr.model.CurrencyUnit;
 import acctMgr.model.OverdrawException;
+import acctMgr.model.ShardedAccountEngine;
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.math.BigDecimal;
 import java.text.DecimalFormat;
 
@@ -15,6 +22,8 @@ public class AccountView extends JFrame implements AccountListener {
     private static final long serialVersionUID = 1L;
 
     private Account account;
+    // Set when the view belongs to an account list; it subscribes to this account's events
+    private transient AccountViewController controller;
     private JTextField balanceField;
     private JTextField amountField;
     private JButton depositButton;
@@ -24,12 +33,12 @@ public class AccountView extends JFrame implements AccountListener {
     private JButton yenButton;
     private JButton dismissButton;
 
-    // Conversion rates from USD to other currencies
-    private static final double USD_TO_EURO = 0.79;
-    private static final double USD_TO_YEN = 94.1;
-
     // The current currency, initially set to USD
-    private String currentCurrency = "$";
+    private CurrencyUnit currentCurrency = CurrencyUnit.USD;
+
+    // Cached per view; only ever used on the event thread
+    private final DecimalFormat balanceFormat = new DecimalFormat("#.##");
+    private final Runnable balanceRefresh = this::refreshBalance;
 
     /**
      * Constructs an AccountView with the specified account.
@@ -37,8 +46,28 @@ public class AccountView extends JFrame implements AccountListener {
      * @param account The account to be managed by this view.
      */
     public AccountView(Account account) {
+        this(account, null, null);
+    }
+
+    /**
+     * Constructs an AccountView for an account of an account list. The view's controller
+     * subscribes to that account's events only, so changes to other accounts never wake
+     * it, and deposits and withdrawals may be submitted to a sharded engine.
+     *
+     * @param account The account to be managed by this view.
+     * @param accountList The list the account belongs to, or {@code null} to listen to the
+     *                    account directly.
+     * @param engine The engine to submit operations to, or {@code null} to update the
+     *               account directly.
+     */
+    public AccountView(Account account, AccountList accountList, ShardedAccountEngine engine) {
         this.account = account;
-        account.addListener(this);
+        if (accountList != null) {
+            controller = new AccountViewController(this, account, accountList, engine);
+        } else {
+            // Held weakly so that a view that is never dismissed cannot leak through the account
+            account.addWeakListener(this);
+        }
         initialize();
     }
 
@@ -69,9 +98,9 @@ public class AccountView extends JFrame implements AccountListener {
             }
         });
         dismissButton.addActionListener(e -> dismiss());
-        usdButton.addActionListener(e -> setCurrency("$"));
-        euroButton.addActionListener(e -> setCurrency("€"));
-        yenButton.addActionListener(e -> setCurrency("¥"));
+        usdButton.addActionListener(e -> setCurrency(CurrencyUnit.USD));
+        euroButton.addActionListener(e -> setCurrency(CurrencyUnit.EUR));
+        yenButton.addActionListener(e -> setCurrency(CurrencyUnit.JPY));
 
         // Create the account information label
         JLabel accountInfoLabel = new JLabel("Account: " + account.getName() + " (ID: " + account.getId() + ")");
@@ -119,6 +148,19 @@ public class AccountView extends JFrame implements AccountListener {
         constraints.gridx = 2;
         panel.add(yenButton, constraints);
 
+        // Stop listening once the frame is disposed, whether by Dismiss or the close box
+        setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                if (controller != null) {
+                    controller.setModel(null);
+                } else {
+                    AccountView.this.account.removeListener(AccountView.this);
+                }
+            }
+        });
+
         // Add the panel to the frame
         add(panel);
         pack();
@@ -129,6 +171,12 @@ public class AccountView extends JFrame implements AccountListener {
      * Handles deposit operations based on the entered amount.
      */
     private void deposit() {
+        if (controller != null) {
+            // The controller's subscription redraws the balance once the deposit is applied
+            controller.operation("deposit");
+            refreshView();
+            return;
+        }
         BigDecimal amount = new BigDecimal(amountField.getText());
         account.deposit(amount);
         refreshView();
@@ -140,6 +188,12 @@ public class AccountView extends JFrame implements AccountListener {
      * @throws OverdrawException if the withdrawal results in an overdraft
      */
     private void withdraw() throws OverdrawException {
+        if (controller != null) {
+            // The controller reports a decline itself
+            controller.operation("withdraw");
+            refreshView();
+            return;
+        }
         BigDecimal amount = new BigDecimal(amountField.getText());
         account.withdraw(amount);
         refreshView();
@@ -148,9 +202,9 @@ public class AccountView extends JFrame implements AccountListener {
     /**
      * Sets the current currency and updates the display balance accordingly.
      *
-     * @param currency The currency symbol to set ("$", "€", or "¥").
+     * @param currency The currency to display the balance in.
      */
-    private void setCurrency(String currency) {
+    private void setCurrency(CurrencyUnit currency) {
         currentCurrency = currency;
         displayBalanceInCurrency(currency);
     }
@@ -158,52 +212,39 @@ public class AccountView extends JFrame implements AccountListener {
     /**
      * Displays the current account balance in the specified currency.
      *
-     * @param currency The currency symbol for the balance display ("$", "€", or "¥").
+     * @param currency The currency for the balance display.
      */
-    private void displayBalanceInCurrency(String currency) {
-        DecimalFormat df = new DecimalFormat("#.##");
-        BigDecimal balance = account.getBalance();
-        BigDecimal convertedBalance;
-        String currencySymbol;
-
-        switch (currency) {
-            case "$": // USD
-                convertedBalance = balance;
-                currencySymbol = "$";
-                break;
-            case "€": // Euro
-                convertedBalance = balance.multiply(BigDecimal.valueOf(USD_TO_EURO));
-                currencySymbol = "€";
-                break;
-            case "¥": // Yen
-                convertedBalance = balance.multiply(BigDecimal.valueOf(USD_TO_YEN));
-                currencySymbol = "¥";
-                break;
-            default:
-                convertedBalance = balance;
-                currencySymbol = "";
-        }
+    private void displayBalanceInCurrency(CurrencyUnit currency) {
+        long convertedCents = CurrencyEngine.getDefault().convertCents(account.getBalanceCents(), CurrencyUnit.USD, currency);
 
         // Update the balance field with the converted balance and currency symbol
-        balanceField.setText(currencySymbol + df.format(convertedBalance));
+        balanceField.setText(currency.getSymbol() + balanceFormat.format(BigDecimal.valueOf(convertedCents, 2)));
     }
 
     /**
-     * Refreshes the view based on the current account state.
+     * Refreshes the view based on the current account state and clears the amount field.
      */
     public void refreshView() {
-        displayBalanceInCurrency(currentCurrency);
+        refreshBalance();
         amountField.setText("0.00");
     }
 
     /**
-     * Handles account updates by refreshing the view.
+     * Redisplays the balance without touching the amount being entered.
+     */
+    private void refreshBalance() {
+        displayBalanceInCurrency(currentCurrency);
+    }
+
+    /**
+     * Handles account updates by marking the balance dirty. The balance is redrawn on the
+     * event thread in the next frame, however many updates arrive in between.
      *
      * @param account The updated account.
      */
     @Override
     public void accountUpdated(Account account) {
-        refreshView();
+        RefreshScheduler.getDefault().markDirty(balanceRefresh);
     }
 
     /**
@@ -216,7 +257,8 @@ public class AccountView extends JFrame implements AccountListener {
     }
 
     /**
-     * Dismisses the current view by closing the window.
+     * Dismisses the current view by closing the window, which also unregisters it from the
+     * account.
      */
     public void dismiss() {
         this.dispose();
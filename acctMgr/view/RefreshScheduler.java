@@ -0,0 +1,72 @@
+package acctMgr.view;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Batches view refreshes onto the Swing event thread at a bounded frame rate.
+ * Any thread may mark a refresh task dirty; marking an already dirty task again is free.
+ * Once per frame, every dirty task runs once on the event thread. When nothing is
+ * dirty, the timer does not run.
+ */
+public class RefreshScheduler {
+    /**
+     * Default number of refresh passes per second.
+     */
+    public static final int DEFAULT_FRAMES_PER_SECOND = 30;
+
+    private static final RefreshScheduler DEFAULT = new RefreshScheduler(DEFAULT_FRAMES_PER_SECOND);
+
+    private final Set<Runnable> dirty = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Timer timer;
+
+    /**
+     * Constructs a RefreshScheduler.
+     *
+     * @param framesPerSecond The maximum number of refresh passes per second.
+     */
+    public RefreshScheduler(int framesPerSecond) {
+        if (framesPerSecond <= 0) {
+            throw new IllegalArgumentException("Frame rate must be positive");
+        }
+        timer = new Timer(1000 / framesPerSecond, e -> refreshDirty());
+        timer.setRepeats(false);
+    }
+
+    /**
+     * Returns the scheduler shared by the application's views.
+     *
+     * @return The shared scheduler.
+     */
+    public static RefreshScheduler getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Marks a refresh task dirty so that it runs in the next frame. Tasks are compared by
+     * identity, so callers should pass the same instance each time.
+     *
+     * @param refresh The refresh task to run on the event thread.
+     */
+    public void markDirty(Runnable refresh) {
+        dirty.add(refresh);
+        if (scheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(timer::start);
+        }
+    }
+
+    /**
+     * Runs every dirty task once. Called on the event thread when the frame timer fires.
+     */
+    private void refreshDirty() {
+        scheduled.set(false);
+        for (Runnable refresh : dirty) {
+            dirty.remove(refresh);
+            refresh.run();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package acctMgr.bench;
+
+import acctMgr.model.Account;
+import acctMgr.model.AccountList;
+import acctMgr.model.CurrencyEngine;
+import acctMgr.model.CurrencyUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Benchmarks currency conversion of single amounts and of whole account lists.
+ */
+@State(Scope.Benchmark)
+public class ConversionBenchmark {
+    @Param({"1000", "100000"})
+    public int accounts;
+
+    private final BigDecimal amount = new BigDecimal("1234.56");
+    private final CurrencyEngine engine = CurrencyEngine.getDefault();
+    private AccountList accountList;
+    private List<Account> snapshot;
+
+    /**
+     * Creates the accounts to convert in bulk.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        accountList = new AccountList();
+        for (int i = 0; i < accounts; i++) {
+            accountList.addAccount(new Account("Holder " + i, String.format("%08d", i), 100_000L + i));
+        }
+        snapshot = accountList.getAccounts();
+    }
+
+    /**
+     * The BigDecimal conversion used by {@link AccountList#convertUsdToEur(BigDecimal)}.
+     *
+     * @return The converted amount.
+     */
+    @Benchmark
+    public BigDecimal convertUsdToEur() {
+        return accountList.convertUsdToEur(amount);
+    }
+
+    /**
+     * The BigDecimal conversion used by {@link AccountList#convertUsdToYen(BigDecimal)}.
+     *
+     * @return The converted amount.
+     */
+    @Benchmark
+    public BigDecimal convertUsdToYen() {
+        return accountList.convertUsdToYen(amount);
+    }
+
+    /**
+     * The fixed-point cents conversion.
+     *
+     * @return The converted amount, in cents.
+     */
+    @Benchmark
+    public long convertCents() {
+        return engine.convertCents(123_456L, CurrencyUnit.USD, CurrencyUnit.EUR);
+    }
+
+    /**
+     * Converting every balance of a prepared snapshot.
+     *
+     * @return The converted balances.
+     */
+    @Benchmark
+    public long[] convertBalances() {
+        return engine.convertBalances(snapshot, CurrencyUnit.JPY);
+    }
+
+    /**
+     * Converting every balance through the account list, including the snapshot and map.
+     *
+     * @return The converted balances.
+     */
+    @Benchmark
+    public Map<String, BigDecimal> convertAccountList() {
+        return accountList.convertBalances(CurrencyUnit.JPY);
+    }
+}
@@ -0,0 +1,76 @@
+package acctMgr.bench;
+
+import acctMgr.model.Account;
+import acctMgr.model.AccountList;
+import acctMgr.model.AgentStatus;
+import acctMgr.model.ModelEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+
+/**
+ * Benchmarks the cost of notifying listeners as their number grows: account listeners are
+ * called on the writer's thread, model listeners through the asynchronous dispatcher.
+ */
+@State(Scope.Benchmark)
+public class ListenerBenchmark {
+    @Param({"0", "1", "16", "256"})
+    public int listeners;
+
+    private Account account;
+    private AccountList accountList;
+    private ModelEvent transferEvent;
+
+    /**
+     * Registers the listeners. Every listener feeds a blackhole so that its work is not
+     * optimized away.
+     *
+     * @param blackhole The blackhole supplied by JMH.
+     */
+    @Setup(Level.Trial)
+    public void setUp(Blackhole blackhole) {
+        accountList = new AccountList();
+        account = new Account("Holder", "00000001", new BigDecimal("1000000.00"));
+        accountList.addAccount(account);
+        for (int i = 0; i < listeners; i++) {
+            account.addListener(blackhole::consume);
+            accountList.addModelListener(blackhole::consume);
+        }
+        transferEvent = new ModelEvent(ModelEvent.EventKind.AmountTransferredUpdate, account.getId(),
+                BigDecimal.ONE, AgentStatus.NA);
+    }
+
+    /**
+     * Waits for queued model events after every iteration, so the dispatcher's backlog is
+     * delivered and released before the next iteration is measured rather than building up
+     * for the whole trial.
+     */
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        accountList.flushEvents();
+    }
+
+    /**
+     * A deposit, including the synchronous account listener fan-out and the coalesced
+     * balance event queued for model listeners.
+     */
+    @Benchmark
+    public void depositFanOut() {
+        account.depositCents(1);
+    }
+
+    /**
+     * Queuing a model event that is never coalesced; delivery happens on the event thread.
+     */
+    @Benchmark
+    public void notifyChanged() {
+        accountList.notifyChanged(transferEvent);
+    }
+}
@@ -0,0 +1,87 @@
+package acctMgr.bench;
+
+import acctMgr.model.AccountList;
+import acctMgr.model.LoadReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Benchmarks loading and saving the CSV account file at several file sizes.
+ */
+@State(Scope.Benchmark)
+public class PersistenceBenchmark {
+    /**
+     * Number of accounts in the generated file.
+     */
+    @Param({"1000", "100000", "1000000"})
+    public int fileAccounts;
+
+    private Path directory;
+    private Path loadFile;
+    private Path saveFile;
+    private AccountList loaded;
+
+    /**
+     * Writes the account file and loads it once for the save benchmark.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("acct-bench");
+        loadFile = directory.resolve("accounts.txt");
+        saveFile = directory.resolve("saved.txt");
+        try (BufferedWriter writer = Files.newBufferedWriter(loadFile, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < fileAccounts; i++) {
+                writer.write("Holder " + i + "," + String.format("%08d", i) + "," + (i % 100_000) + "." + (i % 100 / 10) + (i % 10));
+                writer.newLine();
+            }
+        }
+        loaded = new AccountList();
+        loaded.loadAccounts(loadFile.toString());
+    }
+
+    /**
+     * Removes the generated files.
+     *
+     * @throws IOException if a file cannot be deleted
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(loadFile);
+        Files.deleteIfExists(saveFile);
+        Files.deleteIfExists(directory);
+    }
+
+    /**
+     * Loading the whole file into a fresh account list.
+     *
+     * @return The load report.
+     * @throws IOException if the file cannot be read
+     */
+    @Benchmark
+    public LoadReport loadAccounts() throws IOException {
+        return new AccountList().loadAccounts(loadFile.toString());
+    }
+
+    /**
+     * Writing every account with a full, crash-safe save.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Benchmark
+    public void saveAccounts() throws IOException {
+        loaded.saveAccounts(saveFile.toString());
+    }
+}